@@ -9,6 +9,8 @@
 
 -- Drop table if exists (for clean setup)
 DROP TABLE IF EXISTS quotes CASCADE;
+DROP TABLE IF EXISTS quote_author_stats;
+DROP TABLE IF EXISTS quote_cache;
 
 -- Create quotes table
 CREATE TABLE IF NOT EXISTS quotes (
@@ -22,6 +24,29 @@ CREATE TABLE IF NOT EXISTS quotes (
 -- Create index on author for faster searches
 CREATE INDEX IF NOT EXISTS idx_quotes_author ON quotes(author);
 
+-- Exact-text lookups used to skip duplicates when harvesting and importing.
+-- Hash rather than B-tree: a 1000-character text can exceed the B-tree row limit.
+CREATE INDEX IF NOT EXISTS idx_quotes_text ON quotes USING hash (text);
+
+-- Per-author counts, maintained by the application on every save/delete
+-- (seeded from quotes on first start when empty)
+CREATE TABLE IF NOT EXISTS quote_author_stats (
+    author VARCHAR(255) PRIMARY KEY,
+    quote_count BIGINT NOT NULL
+);
+
+-- Matches the listing order, so a page is read straight off the index without a sort
+CREATE INDEX IF NOT EXISTS idx_author_stats_count ON quote_author_stats(quote_count DESC, author);
+
+-- Recently fetched provider quotes shared between instances in cluster mode
+-- (quotes.cluster.enabled); trimmed to the in-memory cache size by the leader
+CREATE TABLE IF NOT EXISTS quote_cache (
+    id BIGSERIAL PRIMARY KEY,
+    text VARCHAR(1000) NOT NULL,
+    author VARCHAR(255) NOT NULL,
+    fetched_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
 -- Insert sample quotes
 INSERT INTO quotes (text, author) VALUES
 ('The only way to do great work is to love what you do.', 'Steve Jobs'),
@@ -1,9 +1,12 @@
 package com.example.quotes;
 
-import org.springframework.boot.CommandLineRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestTemplate;
 import javax.sql.DataSource;
@@ -12,6 +15,9 @@ import java.sql.Connection;
 @SpringBootApplication
 @EnableScheduling
 public class QuotesApplication {
+
+	private static final Logger logger = LoggerFactory.getLogger(QuotesApplication.class);
+
 	public static void main(String[] args) {
 		SpringApplication.run(QuotesApplication.class, args);
 	}
@@ -21,18 +27,23 @@ public class QuotesApplication {
 		return new RestTemplate();
 	}
 
-	@Bean
-	public CommandLineRunner testConnection(DataSource dataSource) {
-		return args -> {
+	/**
+	 * Logs the database the app is connected to on a background thread once
+	 * the app is ready, instead of blocking startup on a connection check like
+	 * a CommandLineRunner would. /actuator/health remains the source of truth.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void logDatabaseConnection(ApplicationReadyEvent event) {
+		DataSource dataSource = event.getApplicationContext().getBean(DataSource.class);
+		Thread check = new Thread(() -> {
 			try (Connection conn = dataSource.getConnection()) {
-				System.out.println("DATABASE CONNECTION SUCCESSFUL!");
-				System.out.println("Catalog: " + conn.getCatalog());
-				System.out.println("URL: " + conn.getMetaData().getURL());
-				System.out.println("User: " + conn.getMetaData().getUserName());
+				logger.info("Database connection successful: catalog={}, url={}, user={}",
+						conn.getCatalog(), conn.getMetaData().getURL(), conn.getMetaData().getUserName());
 			} catch (Exception e) {
-				System.out.println("DATABASE CONNECTION FAILED!");
-				e.printStackTrace();
+				logger.error("Database connection failed", e);
 			}
-		};
+		}, "db-connection-check");
+		check.setDaemon(true);
+		check.start();
 	}
-}
\ No newline at end of file
+}
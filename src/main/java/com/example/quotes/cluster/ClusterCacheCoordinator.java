@@ -0,0 +1,334 @@
+package com.example.quotes.cluster;
+
+import com.example.quotes.entities.Quote;
+import com.example.quotes.event.QuoteCacheRefreshedEvent;
+import com.example.quotes.event.QuoteDeletedEvent;
+import com.example.quotes.event.QuoteSavedEvent;
+import com.example.quotes.event.QuotesImportedEvent;
+import com.example.quotes.service.QuoteCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Cluster mode for the random-quote cache (PostgreSQL only).
+ *
+ * Nodes compete for a session-level advisory lock; the holder is the only
+ * one that calls the quote providers. It appends each fetched quote to the
+ * shared quote_cache table and NOTIFYs the other nodes, which load just
+ * that row into their in-memory cache. Upstream traffic therefore stays at
+ * one fetch per refresh interval regardless of how many nodes run.
+ *
+ * Saves, deletes and imports on any node are announced on a second
+ * channel, quote_changes, and the other nodes republish them as local
+ * events. That keeps each node's own derived state (off-heap corpus,
+ * similarity index, GET /api/quotes snapshot, SSE change feed) in step
+ * with writes made elsewhere. Changes missed while the listener was
+ * reconnecting are covered by a rescan, signalled as an import, which
+ * also replaces edited rows and drops rows deleted in the meantime.
+ *
+ * Two pooled connections are held for the node's lifetime: one owns the
+ * advisory lock (released on shutdown or when its session dies), one
+ * LISTENs. Size the pool with these two in mind. The quote_cache table
+ * comes from database-setup.sql.
+ */
+@Component
+@ConditionalOnProperty(name = "quotes.cluster.enabled", havingValue = "true")
+public class ClusterCacheCoordinator implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterCacheCoordinator.class);
+
+    private static final String CHANNEL = "quote_cache";
+    private static final String CHANGES_CHANNEL = "quote_changes";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final QuoteCache cache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final long lockKey;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Object leaderMonitor = new Object();
+    private Connection leaderConnection;
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public ClusterCacheCoordinator(DataSource dataSource, JdbcTemplate jdbcTemplate,
+                                   TransactionTemplate transactionTemplate, QuoteCache cache,
+                                   ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper,
+                                   @Value("${quotes.cluster.lock-key:7301100001}") long lockKey) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.cache = cache;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.lockKey = lockKey;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        listenerThread = new Thread(this::listenLoop, "quote-cache-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+        logger.info("Cluster cache mode enabled, node {}", nodeId);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+        synchronized (leaderMonitor) {
+            if (leaderConnection != null) {
+                // Session locks survive a return to the pool, so release explicitly
+                try (PreparedStatement statement = leaderConnection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+                    statement.setLong(1, lockKey);
+                    statement.execute();
+                } catch (SQLException e) {
+                    logger.warn("Failed to release cluster leader lock: {}", e.getMessage());
+                }
+            }
+            closeQuietly(leaderConnection);
+            leaderConnection = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Returns true if this node holds (or just acquired) the refresh lock.
+     * Leadership lasts as long as the lock connection stays healthy.
+     */
+    public boolean tryAcquireLeadership() {
+        synchronized (leaderMonitor) {
+            try {
+                if (leaderConnection != null && leaderConnection.isValid(2)) {
+                    return true;
+                }
+                closeQuietly(leaderConnection);
+                leaderConnection = null;
+
+                Connection connection = dataSource.getConnection();
+                connection.setAutoCommit(true);
+                try (PreparedStatement statement = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+                    statement.setLong(1, lockKey);
+                    try (ResultSet rs = statement.executeQuery()) {
+                        if (rs.next() && rs.getBoolean(1)) {
+                            leaderConnection = connection;
+                            logger.info("Node {} is now the cluster cache refresh leader", nodeId);
+                            return true;
+                        }
+                    }
+                }
+                connection.close();
+                return false;
+            } catch (SQLException e) {
+                logger.warn("Leader election failed: {}", e.getMessage());
+                closeQuietly(leaderConnection);
+                leaderConnection = null;
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Appends the quote to the shared cache table, trims it to the cache
+     * capacity and notifies the other nodes. The notification is delivered
+     * on commit, so followers always find the row.
+     */
+    public void publish(Quote quote) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Long id = jdbcTemplate.queryForObject(
+                    "INSERT INTO quote_cache (text, author) VALUES (?, ?) RETURNING id",
+                    Long.class, quote.getText(), quote.getAuthor());
+            jdbcTemplate.update("DELETE FROM quote_cache WHERE id <= ? - ?", id, QuoteCache.CAPACITY);
+            jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", CHANNEL, nodeId + ":" + id);
+        });
+    }
+
+    @EventListener
+    public void onQuoteSaved(QuoteSavedEvent event) {
+        announce(Change.of(nodeId, Change.SAVED, event.quote()));
+    }
+
+    @EventListener
+    public void onQuoteDeleted(QuoteDeletedEvent event) {
+        announce(Change.of(nodeId, Change.DELETED, event.quote()));
+    }
+
+    @EventListener
+    public void onQuotesImported(QuotesImportedEvent event) {
+        announce(new Change(nodeId, Change.IMPORTED, null, null, null, event.inserted()));
+    }
+
+    /**
+     * Tells the other nodes about a committed write. Events this node
+     * republishes from a notification are not sent back out. A failed
+     * NOTIFY only leaves the other nodes stale; the write itself stands.
+     */
+    private void announce(Change change) {
+        if (!running || Thread.currentThread() == listenerThread) {
+            return;
+        }
+        try {
+            // A quote's columns keep the payload well under NOTIFY's 8000-byte limit
+            jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", CHANGES_CHANNEL, objectMapper.writeValueAsString(change));
+        } catch (JsonProcessingException | DataAccessException e) {
+            logger.warn("Failed to announce quote {} to the cluster: {}", change.type(), e.getMessage());
+        }
+    }
+
+    private void listenLoop() {
+        long backoffMs = 1000;
+        boolean reconnect = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                    statement.execute("LISTEN " + CHANGES_CHANNEL);
+                }
+                // Anything published while we were not listening is picked up here
+                loadSnapshot();
+                if (reconnect) {
+                    // Writes on other nodes may have been missed; have derived views rescan and reconcile
+                    eventPublisher.publishEvent(new QuotesImportedEvent(0));
+                }
+                reconnect = true;
+                backoffMs = 1000;
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(10_000);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        if (CHANGES_CHANNEL.equals(notification.getName())) {
+                            applyChange(notification.getParameter());
+                        } else {
+                            applyNotification(notification.getParameter());
+                        }
+                    }
+                }
+                // The connection goes back to the pool, so stop listening on it first
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("UNLISTEN *");
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Cluster cache listener lost its connection ({}), retrying in {} ms", e.getMessage(), backoffMs);
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, 30_000);
+            }
+        }
+    }
+
+    private void applyNotification(String payload) {
+        int separator = payload.lastIndexOf(':');
+        if (separator < 0 || payload.substring(0, separator).equals(nodeId)) {
+            return; // our own publish, already in the local cache
+        }
+        long id = Long.parseLong(payload.substring(separator + 1));
+        List<Quote> rows = jdbcTemplate.query(
+                "SELECT text, author FROM quote_cache WHERE id = ?",
+                (rs, rowNum) -> new Quote(rs.getString("text"), rs.getString("author")), id);
+        for (Quote quote : rows) {
+            cache.add(quote);
+            eventPublisher.publishEvent(new QuoteCacheRefreshedEvent(quote));
+        }
+        logger.debug("Applied shared cache entry {}", id);
+    }
+
+    private void applyChange(String payload) {
+        Change change;
+        try {
+            change = objectMapper.readValue(payload, Change.class);
+        } catch (JsonProcessingException e) {
+            logger.warn("Ignoring malformed cluster change notification: {}", e.getMessage());
+            return;
+        }
+        if (nodeId.equals(change.node())) {
+            return; // our own write, already applied locally
+        }
+        switch (change.type()) {
+            case Change.SAVED -> eventPublisher.publishEvent(new QuoteSavedEvent(change.quote()));
+            case Change.DELETED -> eventPublisher.publishEvent(new QuoteDeletedEvent(change.quote()));
+            case Change.IMPORTED -> eventPublisher.publishEvent(new QuotesImportedEvent(
+                    change.inserted() == null ? 0 : change.inserted()));
+            default -> logger.warn("Ignoring unknown cluster change type {}", change.type());
+        }
+    }
+
+    private void loadSnapshot() {
+        List<Quote> quotes = jdbcTemplate.query(
+                "SELECT text, author FROM (SELECT id, text, author FROM quote_cache ORDER BY id DESC LIMIT ?) latest ORDER BY id",
+                (rs, rowNum) -> new Quote(rs.getString("text"), rs.getString("author")), QuoteCache.CAPACITY);
+        if (!quotes.isEmpty()) {
+            cache.replaceAll(quotes);
+            logger.info("Loaded {} quotes from the shared cache table", quotes.size());
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // connection is being discarded anyway
+        }
+    }
+
+    /** Payload of a quote_changes notification. */
+    record Change(String node, String type, Long id, String text, String author, Long inserted) {
+        static final String SAVED = "saved";
+        static final String DELETED = "deleted";
+        static final String IMPORTED = "imported";
+
+        static Change of(String node, String type, Quote quote) {
+            return new Change(node, type, quote.getId(), quote.getText(), quote.getAuthor(), null);
+        }
+
+        Quote quote() {
+            return new Quote(id, text, author);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.quotes.config;
+
+import com.example.quotes.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Replaces the auto-configured pool with a primary and a read replica pool
+ * when quotes.datasource.replica.url is set. Without it Spring Boot's single
+ * DataSource is used as before.
+ */
+@Configuration
+@ConditionalOnProperty(name = "quotes.datasource.replica.url")
+public class DataSourceConfig {
+
+    @Bean
+    public ReplicaRoutingDataSource dataSource(
+            DataSourceProperties properties, Environment environment, ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${quotes.datasource.replica.url}") String url,
+            @Value("${quotes.datasource.replica.username:}") String username,
+            @Value("${quotes.datasource.replica.password:}") String password,
+            @Value("${quotes.datasource.replica.maximum-pool-size:20}") int maximumPoolSize,
+            @Value("${quotes.datasource.replica.connection-timeout-ms:1000}") long connectionTimeoutMs,
+            @Value("${quotes.datasource.replica.sticky-ms:1000}") long stickyMs,
+            @Value("${quotes.datasource.replica.retry-ms:5000}") long retryMs) {
+
+        // Same as the auto-configured pool, spring.datasource.hikari.* included
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("replica");
+        replica.setJdbcUrl(url);
+        replica.setUsername(username.isEmpty() ? properties.determineUsername() : username);
+        replica.setPassword(password.isEmpty() ? properties.determinePassword() : password);
+        replica.setMaximumPoolSize(maximumPoolSize);
+        replica.setConnectionTimeout(connectionTimeoutMs);
+        replica.setReadOnly(true);
+        // Start even if the replica is down; reads fall back to the primary
+        replica.setInitializationFailTimeout(-1);
+
+        meterRegistry.ifAvailable(registry -> {
+            primary.setMetricRegistry(registry);
+            replica.setMetricRegistry(registry);
+        });
+        return new ReplicaRoutingDataSource(primary, replica, stickyMs, retryMs);
+    }
+
+    /**
+     * Hibernate otherwise keeps the first connection until the EntityManager
+     * closes, which with open-in-view is the end of the request, so a write
+     * after a read in the same request would reuse the replica connection.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.quotes.config;
+
+import com.example.quotes.ratelimit.AdaptiveConcurrencyLimiter;
+import com.example.quotes.ratelimit.RateLimitFilter;
+import com.example.quotes.ratelimit.TokenBucketLimiter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class RateLimitConfig {
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(
+            @Value("${rate-limit.enabled:true}") boolean enabled,
+            @Value("${rate-limit.max-clients:100000}") int maxClients,
+            @Value("${rate-limit.client-key-header:}") String clientKeyHeader,
+            @Value("${rate-limit.standard.capacity:60}") int standardCapacity,
+            @Value("${rate-limit.standard.per-second:10}") int standardPerSecond,
+            @Value("${rate-limit.ai.capacity:5}") int aiCapacity,
+            @Value("${rate-limit.ai.per-minute:10}") int aiPerMinute) {
+
+        TokenBucketLimiter standard = new TokenBucketLimiter(standardCapacity, standardPerSecond, TimeUnit.SECONDS, maxClients);
+        TokenBucketLimiter ai = new TokenBucketLimiter(aiCapacity, aiPerMinute, TimeUnit.MINUTES, maxClients);
+
+        FilterRegistrationBean<RateLimitFilter> registration =
+                new FilterRegistrationBean<>(new RateLimitFilter(standard, ai, clientKeyHeader));
+        registration.addUrlPatterns("/api/quotes", "/api/quotes/*");
+        registration.setEnabled(enabled);
+        return registration;
+    }
+
+    /** Publishes the filter's rejection counts as quotes.ratelimit.rejected. */
+    @Bean
+    public MeterBinder rateLimitMetrics(FilterRegistrationBean<RateLimitFilter> rateLimitFilter) {
+        return rateLimitFilter.getFilter();
+    }
+
+    /** Bounds concurrent explain/chat calls; its metrics are published as quotes.ai.concurrency.*. */
+    @Bean
+    public AdaptiveConcurrencyLimiter aiConcurrencyLimiter(
+            @Value("${rate-limit.ai-concurrency.initial-limit:10}") int initialLimit,
+            @Value("${rate-limit.ai-concurrency.min-limit:2}") int minLimit,
+            @Value("${rate-limit.ai-concurrency.max-limit:40}") int maxLimit) {
+        return new AdaptiveConcurrencyLimiter("quotes.ai.concurrency", initialLimit, minLimit, maxLimit);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.quotes.config;
+
+import com.example.quotes.controller.QuoteController;
+import com.example.quotes.service.QuoteService;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class StartupConfig {
+
+    /**
+     * With lazy initialization on (fast-startup profile), keep the beans that
+     * serve every request eager so the first user does not pay for wiring them.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter hotPathBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(QuoteController.class, QuoteService.class);
+    }
+}
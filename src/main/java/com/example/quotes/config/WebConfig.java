@@ -0,0 +1,18 @@
+package com.example.quotes.config;
+
+import com.example.quotes.corpus.QuoteJsonViewConverter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Ahead of Jackson, which would otherwise serialize the view as a bean
+        converters.add(0, new QuoteJsonViewConverter());
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.quotes.controller;
+
+import com.example.quotes.dto.QuoteImportResponse;
+import com.example.quotes.exception.AdminAccessDeniedException;
+import com.example.quotes.importer.ImportFormat;
+import com.example.quotes.importer.QuoteImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Maintenance endpoints, guarded by the X-Admin-Token header. They are
+ * disabled (every call is refused) until quotes.admin.token is set.
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminController.class);
+
+    static final String TOKEN_HEADER = "X-Admin-Token";
+
+    private final QuoteImportService importService;
+    private final byte[] adminToken;
+
+    public AdminController(QuoteImportService importService,
+                           @Value("${quotes.admin.token:}") String adminToken) {
+        this.importService = importService;
+        this.adminToken = adminToken.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Streams the request body into the quotes table. The body is read as
+     * it arrives, so uploads of any size run in constant memory, e.g.
+     * {@code curl --data-binary @quotes.csv -H 'Content-Type: text/csv' -H 'X-Admin-Token: ...' .../import}.
+     * The format follows the Content-Type (text/csv or application/x-ndjson);
+     * a gzip body is accepted with Content-Encoding: gzip.
+     */
+    @PostMapping(value = "/quotes/import", consumes = {ImportFormat.CSV_VALUE, ImportFormat.JSONL_VALUE})
+    public ResponseEntity<QuoteImportResponse> importQuotes(
+            @RequestHeader(value = TOKEN_HEADER, required = false) String token,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            HttpServletRequest request) throws IOException {
+        checkToken(token);
+        ImportFormat importFormat = ImportFormat.fromContentType(contentType);
+        logger.info("Received bulk import request ({})", importFormat);
+
+        InputStream body = request.getInputStream();
+        if (contentEncoding != null && contentEncoding.trim().equalsIgnoreCase("gzip")) {
+            body = new GZIPInputStream(body, 1 << 16);
+        }
+        return ResponseEntity.ok(importService.importQuotes(body, importFormat));
+    }
+
+    private void checkToken(String token) {
+        if (adminToken.length == 0) {
+            throw new AdminAccessDeniedException("Admin endpoints are disabled; set quotes.admin.token to enable them");
+        }
+        if (token == null || !MessageDigest.isEqual(adminToken, token.getBytes(StandardCharsets.UTF_8))) {
+            throw new AdminAccessDeniedException("Missing or invalid " + TOKEN_HEADER + " header");
+        }
+    }
+}
@@ -1,22 +1,44 @@
 package com.example.quotes.controller;
 
+import com.example.quotes.corpus.OffHeapQuoteCorpus;
+import com.example.quotes.corpus.QuoteJsonView;
 import com.example.quotes.entities.Quote;
+import com.example.quotes.ratelimit.AdaptiveConcurrencyLimiter;
+import com.example.quotes.service.AuthorStatsService;
+import com.example.quotes.service.CachedQuote;
+import com.example.quotes.service.EncodedJson;
+import com.example.quotes.service.PeriodicQuoteSelector;
 import com.example.quotes.service.QuoteService;
+import com.example.quotes.service.QuoteSimilarityIndex;
+import com.example.quotes.stream.QuoteChangeFeed;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
+import com.example.quotes.dto.AuthorCount;
+import com.example.quotes.dto.PageResponse;
+import com.example.quotes.dto.QuoteDeletedResponse;
 import com.example.quotes.dto.QuoteExplanationRequest;
 import com.example.quotes.dto.QuoteExplanationResponse;
 import com.example.quotes.dto.QuoteChatRequest;
 import com.example.quotes.dto.QuoteChatResponse;
+import com.example.quotes.dto.QuoteSavedResponse;
+import com.example.quotes.dto.SimilarQuote;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/quotes")
@@ -26,42 +48,149 @@ public class QuoteController {
     private static final Logger logger = LoggerFactory.getLogger(QuoteController.class);
 
     private final QuoteService quoteService;
+    private final PeriodicQuoteSelector periodicQuoteSelector;
+    private final AuthorStatsService authorStatsService;
+    private final QuoteSimilarityIndex similarityIndex;
+    private final AdaptiveConcurrencyLimiter aiConcurrencyLimiter;
+    private final OffHeapQuoteCorpus quoteCorpus;
+    private final QuoteChangeFeed changeFeed;
 
     @Autowired
-    public QuoteController(QuoteService quoteService) {
+    public QuoteController(QuoteService quoteService, PeriodicQuoteSelector periodicQuoteSelector,
+                           AuthorStatsService authorStatsService, QuoteSimilarityIndex similarityIndex,
+                           AdaptiveConcurrencyLimiter aiConcurrencyLimiter, OffHeapQuoteCorpus quoteCorpus,
+                           QuoteChangeFeed changeFeed) {
         this.quoteService = quoteService;
+        this.periodicQuoteSelector = periodicQuoteSelector;
+        this.authorStatsService = authorStatsService;
+        this.similarityIndex = similarityIndex;
+        this.aiConcurrencyLimiter = aiConcurrencyLimiter;
+        this.quoteCorpus = quoteCorpus;
+        this.changeFeed = changeFeed;
     }
 
     @GetMapping("/random")
-    public ResponseEntity<Quote> getRandomQuote() {
+    public ResponseEntity<byte[]> getRandomQuote(@RequestParam(required = false) Long seed,
+                                                 @RequestParam(required = false) Integer count) {
+        if (seed != null && count != null) {
+            throw new IllegalArgumentException("seed and count cannot be combined");
+        }
+        if (count != null) {
+            logger.info("Received request for {} random quotes", count);
+            // The service checks count; size the list from what it returns, never from the parameter
+            List<CachedQuote> quotes = quoteService.getRandomCachedQuotes(count);
+            List<EncodedJson> bodies = new ArrayList<>(quotes.size());
+            for (CachedQuote cached : quotes) {
+                bodies.add(cached.getJson());
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(EncodedJson.joinArray(bodies));
+        }
+        if (seed != null) {
+            logger.info("Received request for seeded random quote: {}", seed);
+            return cacheableUntilExpiry(periodicQuoteSelector.seeded(seed));
+        }
+
         logger.info("Received request for random quote from API");
-        Quote quote = quoteService.getRandomQuoteFromAPI();
-        return ResponseEntity.ok(quote);
+        EncodedJson body = quoteService.getRandomCachedQuote().getJson();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body.identity());
+    }
+
+    @GetMapping("/daily")
+    public ResponseEntity<byte[]> getQuoteOfTheDay() {
+        logger.info("Received request for quote of the day");
+        return cacheableUntilExpiry(periodicQuoteSelector.current(PeriodicQuoteSelector.Period.DAILY));
     }
 
+    @GetMapping("/hourly")
+    public ResponseEntity<byte[]> getQuoteOfTheHour() {
+        logger.info("Received request for quote of the hour");
+        return cacheableUntilExpiry(periodicQuoteSelector.current(PeriodicQuoteSelector.Period.HOURLY));
+    }
+
+    /**
+     * Answered from the cached body while the list is small; a larger list
+     * is streamed page by page and, when the client accepts it, gzipped on
+     * the way out.
+     */
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getAllQuotes() {
+    public ResponseEntity<byte[]> getAllQuotes(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse servletResponse) throws IOException {
         logger.info("Received request to get all quotes");
-        List<Quote> quotes = quoteService.getAllQuotes();
+        EncodedJson body = quoteService.getAllQuotesEncoded();
+        boolean gzip = acceptsGzip(acceptEncoding);
+
+        if (body == null) {
+            servletResponse.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            servletResponse.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (gzip) {
+                servletResponse.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                GZIPOutputStream out = new GZIPOutputStream(servletResponse.getOutputStream(), 8192);
+                quoteService.writeAllQuotes(out);
+                out.finish();
+            } else {
+                quoteService.writeAllQuotes(servletResponse.getOutputStream());
+            }
+            // Already written; nothing left for a message converter
+            return null;
+        }
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("count", quotes.size());
-        response.put("quotes", quotes);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
 
-        if (quotes.isEmpty()) {
-            response.put("message", "No quotes found in database");
+        if (body.hasGzip() && gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.gzip());
         }
+        return response.body(body.identity());
+    }
 
-        return ResponseEntity.ok(response);
+    /** Server-Sent Events feed of created/deleted/refreshed quotes; see {@link QuoteChangeFeed}. */
+    @GetMapping("/stream")
+    public void streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                              HttpServletRequest request, HttpServletResponse response) throws IOException {
+        logger.info("Received change feed subscription (Last-Event-ID: {})", lastEventId);
+        changeFeed.subscribe(request, response, lastEventId);
+    }
+
+    @GetMapping("/authors")
+    public ResponseEntity<PageResponse<AuthorCount>> getAuthors(@RequestParam(defaultValue = "0") int page,
+                                                                @RequestParam(defaultValue = "20") int size) {
+        logger.info("Received request for author counts, page {} size {}", page, size);
+        return ResponseEntity.ok(authorStatsService.getAuthorCounts(page, size));
+    }
+
+    @GetMapping("/authors/{author}")
+    public ResponseEntity<PageResponse<Quote>> getQuotesByAuthor(@PathVariable String author,
+                                                                 @RequestParam(defaultValue = "0") int page,
+                                                                 @RequestParam(defaultValue = "20") int size) {
+        logger.info("Received request for quotes by author: {}", author);
+        return ResponseEntity.ok(authorStatsService.getQuotesByAuthor(author, page, size));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Quote> getQuoteById(@PathVariable Long id) {
+    public ResponseEntity<?> getQuoteById(@PathVariable Long id) {
         logger.info("Received request to get quote with ID: {}", id);
+        QuoteJsonView view = quoteCorpus.find(id);
+        if (view != null) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(view);
+        }
+        // Not in memory (corpus still loading, or the quote does not exist)
         Quote quote = quoteService.getQuoteById(id);
         return ResponseEntity.ok(quote);
     }
 
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<SimilarQuote>> getSimilarQuotes(@PathVariable Long id,
+                                                               @RequestParam(defaultValue = "5") int k) {
+        logger.info("Received request for {} quotes similar to ID: {}", k, id);
+        return ResponseEntity.ok(similarityIndex.findSimilar(id, k));
+    }
+
     @PostMapping
     public ResponseEntity<Quote> saveQuote(@RequestBody Quote quote) {
         logger.info("Received request to save quote: {}", quote);
@@ -70,27 +199,26 @@ public class QuoteController {
     }
 
     @PostMapping("/save")
-    public ResponseEntity<Map<String, Object>> saveQuoteAlt(@RequestBody Quote quote) {
+    public ResponseEntity<QuoteSavedResponse> saveQuoteAlt(@RequestBody Quote quote) {
         logger.info("Received request to save quote via /save endpoint: {}", quote);
         Quote savedQuote = quoteService.saveQuote(quote);
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", "Quote saved successfully");
-        response.put("quote", savedQuote);
+        QuoteSavedResponse response = new QuoteSavedResponse("Quote saved successfully", savedQuote);
 
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
     @PostMapping("/random/save")
-    public ResponseEntity<Map<String, Object>> fetchAndSaveRandomQuote() {
+    public ResponseEntity<QuoteSavedResponse> fetchAndSaveRandomQuote() {
         logger.info("Received request to fetch and save random quote");
 
         Quote randomQuote = quoteService.getRandomQuoteFromAPI();
         Quote savedQuote = quoteService.saveQuote(randomQuote);
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", "Quote fetched from API and saved successfully");
-        response.put("quote", savedQuote);
+        QuoteSavedResponse response = new QuoteSavedResponse(
+                "Quote fetched from API and saved successfully",
+                savedQuote
+        );
 
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
@@ -104,7 +232,7 @@ public class QuoteController {
         }
 
         Quote quote = new Quote(request.getText(), request.getAuthor());
-        String explanation = quoteService.explainQuote(quote);
+        String explanation = aiConcurrencyLimiter.execute(() -> quoteService.explainQuote(quote));
 
         QuoteExplanationResponse response = new QuoteExplanationResponse(
                 quote.getText(),
@@ -127,7 +255,8 @@ public class QuoteController {
         }
 
         Quote quote = new Quote(request.getText(), request.getAuthor());
-        String answer = quoteService.chatAboutQuote(quote, request.getQuestion(), request.getHistory());
+        String answer = aiConcurrencyLimiter.execute(
+                () -> quoteService.chatAboutQuote(quote, request.getQuestion(), request.getHistory()));
 
         QuoteChatResponse response = new QuoteChatResponse(
                 quote.getText(),
@@ -140,14 +269,55 @@ public class QuoteController {
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> deleteQuote(@PathVariable Long id) {
+    public ResponseEntity<QuoteDeletedResponse> deleteQuote(@PathVariable Long id) {
         logger.info("Received request to delete quote with ID: {}", id);
         quoteService.deleteQuote(id);
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", "Quote deleted successfully");
-        response.put("deletedId", id);
+        return ResponseEntity.ok(new QuoteDeletedResponse("Quote deleted successfully", id));
+    }
 
-        return ResponseEntity.ok(response);
+    /**
+     * Public caching up to the selection's period boundary, so CDNs and
+     * browsers all expire it at the same moment the next pick goes live.
+     */
+    private static ResponseEntity<byte[]> cacheableUntilExpiry(PeriodicQuoteSelector.Selection selection) {
+        long maxAge = Math.max(0, Duration.between(Instant.now(), selection.expiresAt()).getSeconds());
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(maxAge)).cachePublic())
+                .headers(headers -> headers.setExpires(selection.expiresAt().toEpochMilli()))
+                .body(selection.json().identity());
+    }
+
+    /**
+     * Minimal Accept-Encoding check: gzip (or *) listed without q=0.
+     * Brotli is not offered because the JDK ships no encoder for it.
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isEmpty()) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim();
+            if (!coding.equalsIgnoreCase("gzip") && !coding.equals("*")) {
+                continue;
+            }
+            boolean rejected = false;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        rejected = Double.parseDouble(param.substring(2)) <= 0;
+                    } catch (NumberFormatException e) {
+                        rejected = true;
+                    }
+                }
+            }
+            if (!rejected) {
+                return true;
+            }
+        }
+        return false;
     }
 }
@@ -0,0 +1,409 @@
+package com.example.quotes.corpus;
+
+import com.example.quotes.entities.Quote;
+import com.example.quotes.event.QuoteDeletedEvent;
+import com.example.quotes.event.QuoteSavedEvent;
+import com.example.quotes.event.QuotesImportedEvent;
+import com.example.quotes.repository.QuoteRepository;
+import com.example.quotes.repository.QuoteRescanner;
+import com.example.quotes.util.LongIntHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * The whole quotes table held outside the Java heap, so lookups by id and
+ * random picks never touch the database and a corpus of millions of
+ * quotes costs the GC almost nothing to trace.
+ *
+ * Quote text is appended as UTF-8 to chunked direct-buffer arenas; each
+ * distinct author is stored once in a second arena. Per quote the heap
+ * only holds a handful of primitive array slots (id, text offset, text
+ * length, author index) plus its entry in a primitive id-to-slot map.
+ * Arenas are append-only, so views handed to the response writer stay
+ * valid after the lock is released; deleted text is reclaimed by copying
+ * the live entries into fresh arenas once it outweighs the live text.
+ *
+ * Loaded in id-order pages on a background thread after startup and kept
+ * in sync through the quote events. Bulk imports, and cluster listener
+ * reconnects, trigger a rescan that also replaces edited rows and drops
+ * deleted ones. Until the first load finishes callers fall back to the
+ * database.
+ */
+@Component
+public class OffHeapQuoteCorpus {
+
+    private static final Logger logger = LoggerFactory.getLogger(OffHeapQuoteCorpus.class);
+
+    private static final int NONE = -1;
+    private static final long DEAD = Long.MIN_VALUE;
+    // Stored in the length slot when the bytes need JSON escaping on output
+    private static final int ESCAPE_FLAG = 1 << 31;
+    private static final int TEXT_CHUNK_BITS = 22;   // 4 MB
+    private static final int AUTHOR_CHUNK_BITS = 18; // 256 KB
+
+    private final boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongIntHashMap slotById = new LongIntHashMap(1024);
+    private long[] ids = new long[1024];
+    private long[] textRefs = new long[1024];
+    private int[] textLengths = new int[1024];
+    private int[] authorIndexes = new int[1024];
+    private int slots;
+    private int deadSlots;
+    private Arena texts = new Arena(TEXT_CHUNK_BITS);
+    private long liveTextBytes;
+    private long deadTextBytes;
+
+    private final Arena authors = new Arena(AUTHOR_CHUNK_BITS);
+    private final Map<String, Integer> authorIndex = new HashMap<>();
+    private long[] authorRefs = new long[256];
+    private int[] authorLengths = new int[256];
+
+    private final QuoteRescanner loader;
+    private volatile boolean ready;
+
+    public OffHeapQuoteCorpus(QuoteRepository quoteRepository,
+                              @Value("${quotes.corpus.enabled:true}") boolean enabled,
+                              @Value("${quotes.corpus.load-page-size:10000}") int pageSize) {
+        this.enabled = enabled;
+        this.loader = new QuoteRescanner("quote-corpus-loader", quoteRepository, pageSize, lock.writeLock(),
+                this::loadPage, this::sweep, this::loadCompleted);
+    }
+
+    /** True once the full table has been loaded; before that, lookups may miss. */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /** Zero-copy view of the quote for the response writer, or null if not held. */
+    public QuoteJsonView find(long id) {
+        lock.readLock().lock();
+        try {
+            int slot = slotById.get(id, NONE);
+            return slot == NONE ? null : view(slot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** A uniformly random quote, or null if the corpus is empty (or unlucky with deleted slots). */
+    public Quote randomQuote(Random rnd) {
+        lock.readLock().lock();
+        try {
+            for (int attempt = 0; attempt < 8 && slots > deadSlots; attempt++) {
+                int slot = rnd.nextInt(slots);
+                if (ids[slot] != DEAD) {
+                    QuoteJsonView view = view(slot);
+                    return new Quote(view.getId(), view.getText(), view.getAuthor());
+                }
+            }
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Direct memory reserved by both arenas. */
+    public long offHeapBytes() {
+        lock.readLock().lock();
+        try {
+            return texts.reservedBytes() + authors.reservedBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onQuoteSaved(QuoteSavedEvent event) {
+        Quote quote = event.quote();
+        if (!enabled || quote.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            loader.recordWrite(quote.getId());
+            removeLocked(quote.getId());
+            putLocked(quote.getId(), quote.getText(), quote.getAuthor());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onQuoteDeleted(QuoteDeletedEvent event) {
+        Long id = event.quote().getId();
+        if (!enabled || id == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            loader.recordWrite(id);
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        requestLoad();
+    }
+
+    /** Bulk imports skip the per-quote events; rescan the table to pick up the new rows. */
+    @EventListener
+    public void onQuotesImported(QuotesImportedEvent event) {
+        requestLoad();
+    }
+
+    private void requestLoad() {
+        if (enabled) {
+            loader.request();
+        }
+    }
+
+    /**
+     * Scans the quotes table in id order, adding or replacing every quote
+     * that differs from what is held, then drops ids that are gone from the
+     * table. A first load that fails stays not-ready: callers keep using
+     * the database.
+     *
+     * @return whether the scan reached the end of the table
+     */
+    boolean load() {
+        return loader.scan();
+    }
+
+    private void loadPage(List<Quote> quotes) {
+        lock.writeLock().lock();
+        try {
+            for (Quote quote : quotes) {
+                long id = quote.getId();
+                if (loader.writtenDuringScan(id)) {
+                    continue;
+                }
+                int slot = slotById.get(id, NONE);
+                if (slot == NONE || !holds(slot, quote)) {
+                    removeLocked(id);
+                    putLocked(id, quote.getText(), quote.getAuthor());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean holds(int slot, Quote quote) {
+        if (quote.getText() == null || quote.getAuthor() == null) {
+            return false;
+        }
+        Integer author = authorIndex.get(quote.getAuthor());
+        if (author == null || author != authorIndexes[slot]) {
+            return false;
+        }
+        byte[] text = quote.getText().getBytes(StandardCharsets.UTF_8);
+        return texts.slice(textRefs[slot], textLengths[slot] & ~ESCAPE_FLAG).equals(ByteBuffer.wrap(text));
+    }
+
+    /** Called with the write lock held once a scan has seen the whole table. */
+    private void sweep(LongPredicate inTable) {
+        long[] gone = new long[16];
+        int count = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if (ids[slot] != DEAD && !inTable.test(ids[slot])) {
+                if (count == gone.length) {
+                    gone = Arrays.copyOf(gone, count * 2);
+                }
+                gone[count++] = ids[slot];
+            }
+        }
+        // Collected first: removing can compact, which moves the slots
+        for (int i = 0; i < count; i++) {
+            removeLocked(gone[i]);
+        }
+        if (count > 0) {
+            logger.info("Dropped {} quotes from the off-heap corpus that are no longer in the table", count);
+        }
+    }
+
+    private void loadCompleted(long elapsedMs) {
+        ready = true;
+        logger.info("Loaded {} quotes into the off-heap corpus ({} KB direct memory) in {} ms",
+                size(), offHeapBytes() / 1024, elapsedMs);
+    }
+
+    private QuoteJsonView view(int slot) {
+        int textLength = textLengths[slot];
+        int author = authorIndexes[slot];
+        int authorLength = authorLengths[author];
+        return new QuoteJsonView(ids[slot],
+                texts.slice(textRefs[slot], textLength & ~ESCAPE_FLAG), (textLength & ESCAPE_FLAG) != 0,
+                authors.slice(authorRefs[author], authorLength & ~ESCAPE_FLAG), (authorLength & ESCAPE_FLAG) != 0);
+    }
+
+    private void putLocked(long id, String text, String author) {
+        if (text == null || author == null) {
+            return;
+        }
+        if (slots == ids.length) {
+            compact(deadSlots > slots / 2 ? ids.length : ids.length * 2);
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        int slot = slots++;
+        ids[slot] = id;
+        textRefs[slot] = texts.append(bytes);
+        textLengths[slot] = encodedLength(bytes);
+        authorIndexes[slot] = intern(author);
+        liveTextBytes += bytes.length;
+        slotById.put(id, slot);
+    }
+
+    private void removeLocked(long id) {
+        int slot = slotById.remove(id, NONE);
+        if (slot == NONE) {
+            return;
+        }
+        int length = textLengths[slot] & ~ESCAPE_FLAG;
+        ids[slot] = DEAD;
+        deadSlots++;
+        liveTextBytes -= length;
+        deadTextBytes += length;
+        if (deadTextBytes > liveTextBytes && deadTextBytes > texts.chunkSize()) {
+            compact(ids.length);
+        }
+    }
+
+    /** Copies live entries into fresh slot arrays and a fresh text arena. */
+    private void compact(int capacity) {
+        long[] newIds = new long[capacity];
+        long[] newTextRefs = new long[capacity];
+        int[] newTextLengths = new int[capacity];
+        int[] newAuthorIndexes = new int[capacity];
+        Arena newTexts = deadTextBytes > 0 ? new Arena(TEXT_CHUNK_BITS) : texts;
+
+        slotById.clear();
+        int live = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if (ids[slot] == DEAD) {
+                continue;
+            }
+            int length = textLengths[slot];
+            newIds[live] = ids[slot];
+            newTextRefs[live] = newTexts == texts
+                    ? textRefs[slot]
+                    : newTexts.append(texts.copy(textRefs[slot], length & ~ESCAPE_FLAG));
+            newTextLengths[live] = length;
+            newAuthorIndexes[live] = authorIndexes[slot];
+            slotById.put(newIds[live], live);
+            live++;
+        }
+        ids = newIds;
+        textRefs = newTextRefs;
+        textLengths = newTextLengths;
+        authorIndexes = newAuthorIndexes;
+        texts = newTexts;
+        slots = live;
+        deadSlots = 0;
+        deadTextBytes = 0;
+    }
+
+    private int intern(String author) {
+        Integer existing = authorIndex.get(author);
+        if (existing != null) {
+            return existing;
+        }
+        int index = authorIndex.size();
+        if (index == authorRefs.length) {
+            authorRefs = Arrays.copyOf(authorRefs, index * 2);
+            authorLengths = Arrays.copyOf(authorLengths, index * 2);
+        }
+        byte[] bytes = author.getBytes(StandardCharsets.UTF_8);
+        authorRefs[index] = authors.append(bytes);
+        authorLengths[index] = encodedLength(bytes);
+        authorIndex.put(author, index);
+        return index;
+    }
+
+    private static int encodedLength(byte[] utf8) {
+        for (byte b : utf8) {
+            // Multi-byte UTF-8 sequences are all >= 0x80 (negative), never escaped
+            if (b == '"' || b == '\\' || (b >= 0 && b < 0x20)) {
+                return utf8.length | ESCAPE_FLAG;
+            }
+        }
+        return utf8.length;
+    }
+
+    /**
+     * Append-only byte storage in fixed-size direct buffers. A reference is
+     * the chunk number shifted above the offset within the chunk; entries
+     * never straddle two chunks.
+     */
+    static final class Arena {
+        private final int chunkBits;
+        private final List<ByteBuffer> chunks = new ArrayList<>();
+        private int position;
+
+        Arena(int chunkBits) {
+            this.chunkBits = chunkBits;
+            this.position = chunkSize();
+        }
+
+        long append(byte[] bytes) {
+            if (bytes.length > chunkSize()) {
+                throw new IllegalArgumentException("Entry of " + bytes.length + " bytes exceeds arena chunk size");
+            }
+            if (position + bytes.length > chunkSize()) {
+                chunks.add(ByteBuffer.allocateDirect(chunkSize()));
+                position = 0;
+            }
+            long ref = ((long) (chunks.size() - 1) << chunkBits) | position;
+            chunks.get(chunks.size() - 1).put(position, bytes);
+            position += bytes.length;
+            return ref;
+        }
+
+        ByteBuffer slice(long ref, int length) {
+            ByteBuffer chunk = chunks.get((int) (ref >>> chunkBits));
+            return chunk.slice((int) (ref & (chunkSize() - 1)), length).asReadOnlyBuffer();
+        }
+
+        byte[] copy(long ref, int length) {
+            byte[] bytes = new byte[length];
+            slice(ref, length).get(bytes);
+            return bytes;
+        }
+
+        int chunkSize() {
+            return 1 << chunkBits;
+        }
+
+        long reservedBytes() {
+            return (long) chunks.size() * chunkSize();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.quotes.corpus;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A quote as read-only views of its UTF-8 bytes in the off-heap corpus.
+ * Written straight to the response as {@code {"id":..,"text":"..","author":".."}},
+ * the same shape Jackson produces for a {@code Quote}, without building
+ * the entity or its strings.
+ */
+public final class QuoteJsonView {
+
+    private static final byte[] ID_PREFIX = "{\"id\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TEXT_PREFIX = ",\"text\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] AUTHOR_PREFIX = "\",\"author\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SUFFIX = "\"}".getBytes(StandardCharsets.US_ASCII);
+
+    private final long id;
+    private final ByteBuffer text;
+    private final boolean textNeedsEscaping;
+    private final ByteBuffer author;
+    private final boolean authorNeedsEscaping;
+
+    QuoteJsonView(long id, ByteBuffer text, boolean textNeedsEscaping,
+                  ByteBuffer author, boolean authorNeedsEscaping) {
+        this.id = id;
+        this.text = text;
+        this.textNeedsEscaping = textNeedsEscaping;
+        this.author = author;
+        this.authorNeedsEscaping = authorNeedsEscaping;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getText() {
+        return decode(text);
+    }
+
+    public String getAuthor() {
+        return decode(author);
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(ID_PREFIX);
+        out.write(Long.toString(id).getBytes(StandardCharsets.US_ASCII));
+        out.write(TEXT_PREFIX);
+        writeString(out, text, textNeedsEscaping);
+        out.write(AUTHOR_PREFIX);
+        writeString(out, author, authorNeedsEscaping);
+        out.write(SUFFIX);
+    }
+
+    private static void writeString(OutputStream out, ByteBuffer value, boolean needsEscaping) throws IOException {
+        if (needsEscaping) {
+            // Rare: quotes, backslashes or control characters; let Jackson escape them
+            out.write(JsonStringEncoder.getInstance().quoteAsUTF8(decode(value)));
+            return;
+        }
+        ByteBuffer source = value.duplicate();
+        byte[] chunk = new byte[Math.min(source.remaining(), 8192)];
+        while (source.hasRemaining()) {
+            int length = Math.min(chunk.length, source.remaining());
+            source.get(chunk, 0, length);
+            out.write(chunk, 0, length);
+        }
+    }
+
+    private static String decode(ByteBuffer value) {
+        return StandardCharsets.UTF_8.decode(value.duplicate()).toString();
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.quotes.corpus;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/** Writes {@link QuoteJsonView}s from corpus memory; registered ahead of Jackson. */
+public class QuoteJsonViewConverter extends AbstractHttpMessageConverter<QuoteJsonView> {
+
+    public QuoteJsonViewConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return QuoteJsonView.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected QuoteJsonView readInternal(Class<? extends QuoteJsonView> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("QuoteJsonView is write-only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(QuoteJsonView view, HttpOutputMessage outputMessage) throws IOException {
+        view.writeTo(outputMessage.getBody());
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.quotes.datasource;
+
+import com.example.quotes.event.QuoteDeletedEvent;
+import com.example.quotes.event.QuoteSavedEvent;
+import com.example.quotes.event.QuotesImportedEvent;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends read-only transactions to a replica pool and everything else to
+ * the primary.
+ *
+ * Connections are handed out lazily, so the physical connection is only
+ * picked when the first statement runs; by then the current transaction
+ * is known, and read-only ones are served by the replica. Spring Data's
+ * repository reads are read-only already, as are the service methods
+ * annotated {@code @Transactional(readOnly = true)}. Work outside a
+ * transaction goes to the primary.
+ *
+ * Two cases still read from the primary:
+ * <ul>
+ *   <li>For {@code sticky-ms} after a save, delete or import on this node,
+ *       so the caller (and the node's caches, which rebuild on those
+ *       events) see the write even if the replica lags behind.</li>
+ *   <li>For {@code retry-ms} after the replica fails to hand out a
+ *       connection, instead of every read waiting out the pool timeout.</li>
+ * </ul>
+ * Fallback connections from the primary are set read-only, so a read path
+ * that tries to write fails the same way on either database.
+ *
+ * Each pool has its own fixed credentials, so connections for other
+ * credentials are refused with {@link SQLFeatureNotSupportedException},
+ * as Hikari itself does.
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements MeterBinder, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final HikariDataSource primary;
+    private final HikariDataSource replica;
+    private final long stickyNanos;
+    private final long retryNanos;
+
+    private volatile long stickyUntil = System.nanoTime();
+    private volatile long replicaDownUntil = System.nanoTime();
+    private final AtomicLong stickyReads = new AtomicLong();
+    private final AtomicLong fallbackReads = new AtomicLong();
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, HikariDataSource replica, long stickyMs, long retryMs) {
+        this.primary = primary;
+        this.replica = replica;
+        this.stickyNanos = TimeUnit.MILLISECONDS.toNanos(stickyMs);
+        this.retryNanos = TimeUnit.MILLISECONDS.toNanos(retryMs);
+        setTargetDataSource(new Router());
+    }
+
+    @EventListener({QuoteSavedEvent.class, QuoteDeletedEvent.class, QuotesImportedEvent.class})
+    public void onWrite() {
+        if (stickyNanos > 0) {
+            stickyUntil = System.nanoTime() + stickyNanos;
+        }
+    }
+
+    public boolean isReplicaUp() {
+        return System.nanoTime() - replicaDownUntil >= 0;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("quotes.datasource.replica.up", this, dataSource -> dataSource.isReplicaUp() ? 1 : 0)
+                .description("Whether read-only transactions are currently sent to the replica")
+                .register(registry);
+        FunctionCounter.builder("quotes.datasource.replica.sticky-reads", stickyReads, AtomicLong::get)
+                .description("Read-only transactions sent to the primary right after a write")
+                .register(registry);
+        FunctionCounter.builder("quotes.datasource.replica.fallback-reads", fallbackReads, AtomicLong::get)
+                .description("Read-only transactions sent to the primary while the replica was down")
+                .register(registry);
+    }
+
+    /** Refused up front rather than on the lazy connection's first statement. */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Credentials are configured per pool");
+    }
+
+    @Override
+    public void close() {
+        replica.close();
+        primary.close();
+    }
+
+    /** Picks the pool for a connection the lazy proxy is about to use. */
+    private Connection route() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return primary.getConnection();
+        }
+        long now = System.nanoTime();
+        if (now - stickyUntil < 0) {
+            stickyReads.incrementAndGet();
+            return readOnlyPrimaryConnection();
+        }
+        if (now - replicaDownUntil < 0) {
+            fallbackReads.incrementAndGet();
+            return readOnlyPrimaryConnection();
+        }
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            replicaDownUntil = System.nanoTime() + retryNanos;
+            fallbackReads.incrementAndGet();
+            logger.warn("Read replica unavailable ({}), reading from the primary for the next {} ms",
+                    e.getMessage(), TimeUnit.NANOSECONDS.toMillis(retryNanos));
+            return readOnlyPrimaryConnection();
+        }
+    }
+
+    private Connection readOnlyPrimaryConnection() throws SQLException {
+        Connection connection = primary.getConnection();
+        // The pool resets this when the connection is returned
+        connection.setReadOnly(true);
+        return connection;
+    }
+
+    private final class Router extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return route();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new SQLFeatureNotSupportedException("Credentials are configured per pool");
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package com.example.quotes.dto;
+
+public record AuthorCount(String author, long count) {
+}
@@ -0,0 +1,6 @@
+package com.example.quotes.dto;
+
+import java.util.List;
+
+public record PageResponse<T>(List<T> content, int page, int size, boolean hasNext) {
+}
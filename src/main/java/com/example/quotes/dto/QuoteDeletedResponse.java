@@ -0,0 +1,4 @@
+package com.example.quotes.dto;
+
+public record QuoteDeletedResponse(String message, Long deletedId) {
+}
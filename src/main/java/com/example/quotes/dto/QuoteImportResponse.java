@@ -0,0 +1,8 @@
+package com.example.quotes.dto;
+
+/**
+ * Outcome of a bulk import: records read, records rejected by validation,
+ * rows inserted, and valid records skipped as already stored or repeated.
+ */
+public record QuoteImportResponse(long received, long rejected, long inserted, long duplicates, long elapsedMs) {
+}
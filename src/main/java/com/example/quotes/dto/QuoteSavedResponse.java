@@ -0,0 +1,6 @@
+package com.example.quotes.dto;
+
+import com.example.quotes.entities.Quote;
+
+public record QuoteSavedResponse(String message, Quote quote) {
+}
@@ -0,0 +1,5 @@
+package com.example.quotes.dto;
+
+/** A quote returned by the similar-quotes endpoint; similarity is an estimated Jaccard index in [0, 1]. */
+public record SimilarQuote(Long id, String text, String author, double similarity) {
+}
@@ -0,0 +1,29 @@
+package com.example.quotes.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Per-author quote count, maintained incrementally on every quote write
+ * so author listings never aggregate over the quotes table.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Entity
+@Table(name = "quote_author_stats", indexes = @Index(name = "idx_author_stats_count", columnList = "quote_count DESC, author"))
+public class AuthorStats {
+
+    @Id
+    @Column(nullable = false)
+    private String author;
+
+    @Column(name = "quote_count", nullable = false)
+    private long quoteCount;
+}
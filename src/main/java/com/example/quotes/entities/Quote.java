@@ -13,17 +13,20 @@ import lombok.ToString;
 @AllArgsConstructor
 @ToString
 @Entity
-@Table(name = "quotes")
+@Table(name = "quotes", indexes = @Index(name = "idx_quotes_author", columnList = "author"))
 public class Quote {
 
+    public static final int MAX_TEXT_LENGTH = 1000;
+    public static final int MAX_AUTHOR_LENGTH = 255;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, length = 1000)
+    @Column(nullable = false, length = MAX_TEXT_LENGTH)
     private String text;
 
-    @Column(nullable = false)
+    @Column(nullable = false, length = MAX_AUTHOR_LENGTH)
     private String author;
 
     public Quote(String text, String author) {
@@ -0,0 +1,7 @@
+package com.example.quotes.event;
+
+import com.example.quotes.entities.Quote;
+
+/** Published after a quote fetched from a provider has been added to the random-quote cache. */
+public record QuoteCacheRefreshedEvent(Quote quote) {
+}
@@ -0,0 +1,7 @@
+package com.example.quotes.event;
+
+import com.example.quotes.entities.Quote;
+
+/** Published after a quote has been written to the database. */
+public record QuoteSavedEvent(Quote quote) {
+}
@@ -0,0 +1,8 @@
+package com.example.quotes.event;
+
+/**
+ * Published after a bulk import has committed. Individual save events are
+ * not sent for imported rows; derived views rebuild from the table instead.
+ */
+public record QuotesImportedEvent(long inserted) {
+}
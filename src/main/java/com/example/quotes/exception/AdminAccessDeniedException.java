@@ -0,0 +1,9 @@
+package com.example.quotes.exception;
+
+/** Thrown when an admin endpoint is called without a valid admin token. */
+public class AdminAccessDeniedException extends RuntimeException {
+
+    public AdminAccessDeniedException(String message) {
+        super(message);
+    }
+}
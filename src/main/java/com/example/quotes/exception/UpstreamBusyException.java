@@ -0,0 +1,19 @@
+package com.example.quotes.exception;
+
+/**
+ * Thrown when a request is turned away before reaching an upstream provider
+ * because it could not be served in time. Mapped to 503 with Retry-After.
+ */
+public class UpstreamBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public UpstreamBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
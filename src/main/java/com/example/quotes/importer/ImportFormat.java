@@ -0,0 +1,28 @@
+package com.example.quotes.importer;
+
+import org.springframework.http.MediaType;
+
+/** Accepted bulk import formats, selected by the request Content-Type. */
+public enum ImportFormat {
+    CSV("text/csv"),
+    JSONL("application/x-ndjson");
+
+    public static final String CSV_VALUE = "text/csv";
+    public static final String JSONL_VALUE = "application/x-ndjson";
+
+    private final MediaType mediaType;
+
+    ImportFormat(String mediaType) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+    }
+
+    public static ImportFormat fromContentType(MediaType contentType) {
+        for (ImportFormat format : values()) {
+            if (format.mediaType.isCompatibleWith(contentType)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported import Content-Type: " + contentType
+                + " (use " + CSV_VALUE + " or " + JSONL_VALUE + ")");
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.quotes.importer;
+
+import com.example.quotes.dto.QuoteImportResponse;
+import com.example.quotes.entities.Quote;
+import com.example.quotes.event.QuotesImportedEvent;
+import com.example.quotes.exception.UpstreamBusyException;
+import com.example.quotes.repository.QuoteBatchWriter;
+import com.example.quotes.service.AuthorStatsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Bulk import of quotes from CSV or JSON Lines streams.
+ *
+ * On PostgreSQL, records are validated as they are read and piped through
+ * {@code COPY ... FROM STDIN} into a temporary staging table, then moved
+ * into quotes with one INSERT ... SELECT that drops rows already stored
+ * and repeats within the file. Other databases (H2 in development) get
+ * de-duplicated JDBC batches instead. Either way the import is one
+ * transaction, memory use does not depend on the input size, and a
+ * malformed file leaves the table untouched.
+ *
+ * Imported rows do not raise individual save events: author stats are
+ * recounted inside the import transaction, and a single
+ * {@link QuotesImportedEvent} tells derived views to rebuild.
+ */
+@Service
+public class QuoteImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuoteImportService.class);
+
+    private static final int COPY_BUFFER_SIZE = 1 << 16;
+    private static final Pattern WORK_MEM_PATTERN = Pattern.compile("\\d+\\s*(kB|MB|GB)?");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final QuoteBatchWriter batchWriter;
+    private final AuthorStatsService authorStats;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final String workMem;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public QuoteImportService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                              QuoteBatchWriter batchWriter, AuthorStatsService authorStats, ObjectMapper objectMapper,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${quotes.import.batch-size:1000}") int batchSize,
+                              @Value("${quotes.import.work-mem:256MB}") String workMem) {
+        // Inlined into SET LOCAL, which takes no bind parameters
+        if (!WORK_MEM_PATTERN.matcher(workMem).matches()) {
+            throw new IllegalArgumentException("quotes.import.work-mem must be a size such as 256MB, got: " + workMem);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchWriter = batchWriter;
+        this.authorStats = authorStats;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.workMem = workMem;
+    }
+
+    public QuoteImportResponse importQuotes(InputStream in, ImportFormat format) throws IOException {
+        if (!running.compareAndSet(false, true)) {
+            throw new UpstreamBusyException("Another import is already running", 30);
+        }
+        long started = System.nanoTime();
+        try (QuoteRecordReader reader = QuoteRecordReader.open(format, in, objectMapper.getFactory())) {
+            Counts counts = transactionTemplate.execute(status -> {
+                Counts imported = jdbcTemplate.execute(
+                        (ConnectionCallback<Counts>) connection -> connection.isWrapperFor(PGConnection.class)
+                                ? copyImport(connection, reader)
+                                : batchImport(reader));
+                if (imported.inserted > 0) {
+                    // One recount instead of a delta per row, committed with the rows
+                    authorStats.rebuild();
+                }
+                return imported;
+            });
+
+            long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+            logger.info("Imported {} of {} {} records in {} ms ({} rejected, {} duplicates)",
+                    counts.inserted, counts.received, format, elapsedMs, counts.rejected,
+                    counts.received - counts.rejected - counts.inserted);
+            if (counts.inserted > 0) {
+                eventPublisher.publishEvent(new QuotesImportedEvent(counts.inserted));
+            }
+            return new QuoteImportResponse(counts.received, counts.rejected, counts.inserted,
+                    counts.received - counts.rejected - counts.inserted, elapsedMs);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private Counts copyImport(Connection connection, QuoteRecordReader reader) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TEMP TABLE quotes_import (text TEXT NOT NULL, author TEXT NOT NULL) ON COMMIT DROP");
+        }
+
+        Counts counts = new Counts();
+        CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI()
+                .copyIn("COPY quotes_import (text, author) FROM STDIN WITH (FORMAT csv)");
+        try {
+            CopyBuffer buffer = new CopyBuffer(copy);
+            String[] record = new String[2];
+            while (reader.next(record)) {
+                if (counts.accept(record)) {
+                    buffer.appendCsvField(record[0]);
+                    buffer.append((byte) ',');
+                    buffer.appendCsvField(record[1]);
+                    buffer.append((byte) '\n');
+                }
+            }
+            buffer.flush();
+            copy.endCopy();
+        } catch (IOException | RuntimeException e) {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+            if (e instanceof IOException io) {
+                throw new UncheckedIOException(io);
+            }
+            throw (RuntimeException) e;
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            // Temp tables get no autovacuum statistics; without them the anti-join is planned blind
+            statement.execute("ANALYZE quotes_import");
+            // Room to hash the staged rows in one batch for the anti-join and DISTINCT; reset at commit
+            statement.execute("SET LOCAL work_mem = '" + workMem + "'");
+            counts.inserted = statement.executeUpdate(
+                    "INSERT INTO quotes (text, author) "
+                            + "SELECT DISTINCT s.text, s.author FROM quotes_import s "
+                            + "WHERE NOT EXISTS (SELECT 1 FROM quotes q WHERE q.text = s.text AND q.author = s.author)");
+        }
+        return counts;
+    }
+
+    private Counts batchImport(QuoteRecordReader reader) {
+        Counts counts = new Counts();
+        List<Quote> batch = new ArrayList<>(batchSize);
+        String[] record = new String[2];
+        try {
+            while (reader.next(record)) {
+                if (counts.accept(record)) {
+                    batch.add(new Quote(record[0], record[1]));
+                    if (batch.size() == batchSize) {
+                        counts.inserted += batchWriter.insertNew(batch).size();
+                        batch.clear();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!batch.isEmpty()) {
+            counts.inserted += batchWriter.insertNew(batch).size();
+        }
+        return counts;
+    }
+
+    private static final class Counts {
+        private long received;
+        private long rejected;
+        private long inserted;
+
+        /** Trims the record in place and returns whether it is valid. */
+        private boolean accept(String[] record) {
+            received++;
+            String text = record[0] == null ? "" : record[0].trim();
+            String author = record[1] == null ? "" : record[1].trim();
+            if (text.isEmpty() || author.isEmpty()
+                    || text.length() > Quote.MAX_TEXT_LENGTH || author.length() > Quote.MAX_AUTHOR_LENGTH) {
+                rejected++;
+                return false;
+            }
+            record[0] = text;
+            record[1] = author;
+            return true;
+        }
+    }
+
+    /** Encodes rows as CSV into a fixed buffer that is handed to COPY whenever it fills. */
+    private static final class CopyBuffer {
+        private final CopyIn copy;
+        private final byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        private int length;
+
+        private CopyBuffer(CopyIn copy) {
+            this.copy = copy;
+        }
+
+        void appendCsvField(String value) throws SQLException {
+            append((byte) '"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c >= 0x80) {
+                    // Non-ASCII is uncommon; encode the rest of the field in one go
+                    appendEscaped(value.substring(i).getBytes(StandardCharsets.UTF_8));
+                    break;
+                }
+                if (c == '"') {
+                    append((byte) '"');
+                }
+                append((byte) c);
+            }
+            append((byte) '"');
+        }
+
+        private void appendEscaped(byte[] bytes) throws SQLException {
+            for (byte b : bytes) {
+                if (b == '"') {
+                    append((byte) '"');
+                }
+                append(b);
+            }
+        }
+
+        void append(byte b) throws SQLException {
+            if (length == buffer.length) {
+                flush();
+            }
+            buffer[length++] = b;
+        }
+
+        void flush() throws SQLException {
+            if (length > 0) {
+                copy.writeToCopy(buffer, 0, length);
+                length = 0;
+            }
+        }
+    }
+}
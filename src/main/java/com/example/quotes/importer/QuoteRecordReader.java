@@ -0,0 +1,216 @@
+package com.example.quotes.importer;
+
+import com.example.quotes.entities.Quote;
+import com.example.quotes.util.JsonFields;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads (text, author) records one at a time from an import stream, so an
+ * import holds one record in memory no matter how large the file is.
+ *
+ * Malformed input (broken CSV quoting, invalid JSON, NUL characters, which
+ * PostgreSQL cannot store in text) aborts the import with an
+ * IllegalArgumentException naming the line, as does a CSV field longer
+ * than any quote text may be. Structurally valid records with missing
+ * fields are returned with nulls and rejected by the caller.
+ */
+abstract class QuoteRecordReader implements Closeable {
+
+    /** Fills {@code record} with text and author; returns false at end of input. */
+    abstract boolean next(String[] record) throws IOException;
+
+    static QuoteRecordReader open(ImportFormat format, InputStream in, JsonFactory jsonFactory) throws IOException {
+        return switch (format) {
+            case CSV -> new Csv(in);
+            case JSONL -> new JsonLines(jsonFactory.createParser(in));
+        };
+    }
+
+    /**
+     * RFC 4180 CSV with a text,author column order. Quoted fields may hold
+     * commas, doubled quotes and line breaks. A leading text,author header
+     * row is skipped; extra columns are ignored.
+     */
+    private static final class Csv extends QuoteRecordReader {
+        private final Reader reader;
+        // Own buffer rather than BufferedReader: read() there takes a lock per character
+        private final char[] buffer = new char[1 << 16];
+        private int position;
+        private int limit;
+        private final StringBuilder field = new StringBuilder();
+        private long line = 1;
+        private boolean first = true;
+
+        private Csv(InputStream in) {
+            this.reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        boolean next(String[] record) throws IOException {
+            while (true) {
+                record[0] = null;
+                record[1] = null;
+                int fields = readRecord(record);
+                if (fields < 0) {
+                    return false;
+                }
+                boolean header = first && "text".equalsIgnoreCase(record[0]) && "author".equalsIgnoreCase(record[1]);
+                first = false;
+                boolean blankLine = fields == 1 && record[0].isEmpty();
+                if (!header && !blankLine) {
+                    return true;
+                }
+            }
+        }
+
+        /** @return number of fields read, or -1 at end of input */
+        private int readRecord(String[] record) throws IOException {
+            int c = read();
+            if (c < 0) {
+                return -1;
+            }
+            int fields = 0;
+            long startLine = line;
+            field.setLength(0);
+            boolean quoted = false;
+            boolean afterQuote = false;
+            while (true) {
+                if (quoted) {
+                    if (c < 0) {
+                        throw new IllegalArgumentException("Unterminated quoted field starting on line " + startLine);
+                    }
+                    if (c == '"') {
+                        if (peek() == '"') {
+                            position++;
+                            append('"', startLine);
+                        } else {
+                            quoted = false;
+                            afterQuote = true;
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        append(c, startLine);
+                    }
+                } else if (c == ',' || c == '\n' || c == '\r' || c < 0) {
+                    if (fields < record.length) {
+                        record[fields] = field.toString();
+                    }
+                    fields++;
+                    field.setLength(0);
+                    afterQuote = false;
+                    if (c != ',') {
+                        if (c == '\r' && peek() == '\n') {
+                            position++;
+                        }
+                        if (c >= 0) {
+                            line++;
+                        }
+                        return fields;
+                    }
+                } else if (c == '"' && field.length() == 0 && !afterQuote) {
+                    quoted = true;
+                } else if (afterQuote) {
+                    throw new IllegalArgumentException("Unexpected character after closing quote on line " + line);
+                } else {
+                    append(c, startLine);
+                }
+                c = read();
+            }
+        }
+
+        /** Bounds the field so a missing closing quote cannot pull the rest of the file into memory. */
+        private void append(int c, long startLine) {
+            if (c == 0) {
+                throw new IllegalArgumentException("NUL character on line " + line);
+            }
+            if (field.length() == Quote.MAX_TEXT_LENGTH) {
+                throw new IllegalArgumentException("Field starting on line " + startLine
+                        + " is longer than " + Quote.MAX_TEXT_LENGTH + " characters");
+            }
+            field.append((char) c);
+        }
+
+        private int read() throws IOException {
+            if (position == limit && !fill()) {
+                return -1;
+            }
+            return buffer[position++];
+        }
+
+        private int peek() throws IOException {
+            if (position == limit && !fill()) {
+                return -1;
+            }
+            return buffer[position];
+        }
+
+        private boolean fill() throws IOException {
+            int read = reader.read(buffer, 0, buffer.length);
+            if (read <= 0) {
+                return false;
+            }
+            position = 0;
+            limit = read;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /** One JSON object per line with "text" and "author" string fields; other fields are skipped. */
+    private static final class JsonLines extends QuoteRecordReader {
+        private final JsonParser parser;
+
+        private JsonLines(JsonParser parser) {
+            this.parser = parser;
+        }
+
+        @Override
+        boolean next(String[] record) throws IOException {
+            try {
+                JsonToken token = parser.nextToken();
+                if (token == null) {
+                    return false;
+                }
+                if (token != JsonToken.START_OBJECT) {
+                    throw new IllegalArgumentException("Expected a JSON object on line "
+                            + parser.currentLocation().getLineNr() + " but found " + token);
+                }
+                String[] values = JsonFields.readStrings(parser, "text", "author");
+                if (containsNul(values[0]) || containsNul(values[1])) {
+                    throw new IllegalArgumentException("NUL character on line " + parser.currentLocation().getLineNr());
+                }
+                record[0] = values[0];
+                record[1] = values[1];
+                return true;
+            } catch (JsonProcessingException e) {
+                long lineNr = e.getLocation() == null ? parser.currentLocation().getLineNr() : e.getLocation().getLineNr();
+                throw new IllegalArgumentException("Invalid JSON on line " + lineNr + ": " + e.getOriginalMessage());
+            }
+        }
+
+        private static boolean containsNul(String value) {
+            return value != null && value.indexOf('\0') >= 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+}
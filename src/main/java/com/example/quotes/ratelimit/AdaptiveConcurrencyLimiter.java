@@ -0,0 +1,165 @@
+package com.example.quotes.ratelimit;
+
+import com.example.quotes.exception.UpstreamBusyException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Caps how many calls may be in flight to a slow dependency, with the cap
+ * learned from observed latency (gradient algorithm, as in Netflix's
+ * concurrency-limits).
+ *
+ * A short-window average of call latency is compared with a long-window
+ * baseline. While they agree the limit grows by about sqrt(limit) per
+ * sample; once the short average rises above the baseline, queueing is
+ * happening upstream and the limit shrinks in proportion. Calls over the
+ * limit are rejected immediately rather than parked on a request thread,
+ * so a slow upstream can hold at most {@code limit} threads.
+ *
+ * Only successful calls are latency samples. A call that fails (timeout,
+ * upstream error) is treated as a drop and cuts the limit by a tenth, so
+ * fast failures from a struggling upstream shrink the limit instead of
+ * growing it. Calls turned away with {@link UpstreamBusyException} before
+ * reaching upstream count as neither.
+ */
+public class AdaptiveConcurrencyLimiter implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+    private static final int SHORT_WINDOW = 10;
+    private static final int LONG_WINDOW = 600;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final LongSupplier nanoClock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile double limit;
+
+    // Guarded by this
+    private double shortRttNanos;
+    private double longRttNanos;
+    private long samples;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit) {
+        this(name, initialLimit, minLimit, maxLimit, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit, LongSupplier nanoClock) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min <= max");
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Runs the call if a slot is free, otherwise throws
+     * {@link UpstreamBusyException} without waiting.
+     */
+    public <T> T execute(Supplier<T> call) {
+        int current = inFlight.incrementAndGet();
+        if (current > (int) limit) {
+            inFlight.decrementAndGet();
+            rejected.incrementAndGet();
+            throw new UpstreamBusyException("AI assistant is overloaded, please try again shortly", 1);
+        }
+        long started = nanoClock.getAsLong();
+        T result;
+        try {
+            result = call.get();
+        } catch (UpstreamBusyException e) {
+            // Turned away before reaching upstream; says nothing about its latency
+            inFlight.decrementAndGet();
+            throw e;
+        } catch (RuntimeException | Error e) {
+            inFlight.decrementAndGet();
+            onDrop();
+            throw e;
+        }
+        inFlight.decrementAndGet();
+        onSample(nanoClock.getAsLong() - started, current);
+        return result;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(name + ".limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .register(registry);
+        Gauge.builder(name + ".in-flight", this, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Calls currently in flight")
+                .register(registry);
+        FunctionCounter.builder(name + ".rejected", this, AdaptiveConcurrencyLimiter::getRejected)
+                .description("Calls shed because the limit was reached")
+                .register(registry);
+    }
+
+    private synchronized void onDrop() {
+        double current = limit;
+        double next = Math.max(minLimit, current * BACKOFF_RATIO);
+        if ((int) next != (int) current) {
+            logger.debug("{} limit {} -> {} after a failed call", name, (int) current, (int) next);
+        }
+        limit = next;
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtStart) {
+        samples++;
+        if (samples == 1) {
+            shortRttNanos = rttNanos;
+            longRttNanos = rttNanos;
+            return;
+        }
+        shortRttNanos += (rttNanos - shortRttNanos) / Math.min(samples, SHORT_WINDOW);
+        longRttNanos += (rttNanos - longRttNanos) / Math.min(samples, LONG_WINDOW);
+
+        // After a sustained shift the baseline drifts toward the new normal
+        if (longRttNanos / shortRttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        double current = limit;
+        // A mostly idle limiter is not the bottleneck; its samples say nothing about queueing
+        if (inFlightAtStart < current / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, longRttNanos / shortRttNanos));
+        double target = current * gradient + Math.sqrt(current);
+        double next = current * (1 - SMOOTHING) + target * SMOOTHING;
+        next = Math.max(minLimit, Math.min(maxLimit, next));
+        if ((int) next != (int) current) {
+            logger.debug("{} limit {} -> {} (short rtt {} ms, long rtt {} ms)", name, (int) current, (int) next,
+                    (long) (shortRttNanos / 1_000_000), (long) (longRttNanos / 1_000_000));
+        }
+        limit = next;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.quotes.ratelimit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rejects clients that exceed their token bucket with 429 and Retry-After
+ * before the request reaches QuoteController. The Groq-backed endpoints get
+ * their own, much smaller budget than cheap reads and CRUD.
+ *
+ * Rejections are counted in quotes.ratelimit.rejected rather than logged,
+ * since a client hammering the API would otherwise flood the log too.
+ */
+public class RateLimitFilter extends OncePerRequestFilter implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private final TokenBucketLimiter standardLimiter;
+    private final TokenBucketLimiter aiLimiter;
+    private final String clientKeyHeader;
+    private final LongAdder standardRejected = new LongAdder();
+    private final LongAdder aiRejected = new LongAdder();
+
+    /**
+     * @param clientKeyHeader header identifying the client (e.g. an API key set by a
+     *                        gateway); when blank or absent the remote address is used
+     */
+    public RateLimitFilter(TokenBucketLimiter standardLimiter, TokenBucketLimiter aiLimiter, String clientKeyHeader) {
+        this.standardLimiter = standardLimiter;
+        this.aiLimiter = aiLimiter;
+        this.clientKeyHeader = clientKeyHeader == null || clientKeyHeader.isBlank() ? null : clientKeyHeader;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // CORS preflights are free; they never reach a handler
+        return "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean ai = isAiRequest(request);
+        String clientKey = clientKey(request);
+        long waitNanos = (ai ? aiLimiter : standardLimiter).tryAcquire(clientKey);
+
+        if (waitNanos == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        (ai ? aiRejected : standardRejected).increment();
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        logger.debug("Rate limit exceeded for client {} on {} {}, retry after {}s",
+                clientKey, request.getMethod(), request.getRequestURI(), retryAfterSeconds);
+        writeTooManyRequests(request, response, retryAfterSeconds);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("quotes.ratelimit.rejected", standardRejected, LongAdder::sum)
+                .description("Requests rejected with 429 by the per-client rate limit")
+                .tag("class", "standard")
+                .register(registry);
+        FunctionCounter.builder("quotes.ratelimit.rejected", aiRejected, LongAdder::sum)
+                .description("Requests rejected with 429 by the per-client rate limit")
+                .tag("class", "ai")
+                .register(registry);
+    }
+
+    private static boolean isAiRequest(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return "POST".equals(request.getMethod())
+                && (uri.endsWith("/api/quotes/explain") || uri.endsWith("/api/quotes/chat"));
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        if (clientKeyHeader != null) {
+            String key = request.getHeader(clientKeyHeader);
+            if (key != null && !key.isBlank()) {
+                return "key:" + key;
+            }
+        }
+        // Behind a proxy, set server.forward-headers-strategy so this is the real client
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    // Same body shape as GlobalExceptionHandler, written directly since filters run outside MVC
+    private static void writeTooManyRequests(HttpServletRequest request, HttpServletResponse response,
+                                             long retryAfterSeconds) throws IOException {
+        String body = "{\"timestamp\":\"" + LocalDateTime.now() + "\","
+                + "\"status\":" + HttpStatus.TOO_MANY_REQUESTS.value() + ","
+                + "\"error\":\"Too Many Requests\","
+                + "\"message\":\"Rate limit exceeded, retry after " + retryAfterSeconds + " seconds\","
+                + "\"path\":\"" + request.getRequestURI().replace("\\", "\\\\").replace("\"", "\\\"") + "\"}";
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(body);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.quotes.ratelimit;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-client token buckets for one class of endpoints.
+ *
+ * Each bucket is a single AtomicLong holding its "theoretical arrival time"
+ * (GCRA): refill and take are one CAS, no lock and no background refill
+ * thread. Buckets live in a striped, size-bounded LRU map, so a flood of
+ * distinct clients evicts idle buckets instead of growing the heap; the
+ * stripe lock is only held for the map lookup.
+ */
+public class TokenBucketLimiter {
+
+    private static final int STRIPES = 16;
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final Stripe[] stripes;
+
+    /**
+     * @param capacity        maximum burst a client can spend at once
+     * @param tokensPerPeriod sustained refill rate
+     * @param period          period the refill rate is expressed in
+     * @param maxClients      total number of buckets kept across all stripes
+     */
+    public TokenBucketLimiter(int capacity, int tokensPerPeriod, TimeUnit period, int maxClients) {
+        if (capacity < 1 || tokensPerPeriod < 1) {
+            throw new IllegalArgumentException("Rate limit capacity and refill rate must be positive");
+        }
+        this.emissionIntervalNanos = period.toNanos(1) / tokensPerPeriod;
+        this.burstToleranceNanos = emissionIntervalNanos * (capacity - 1);
+        int perStripe = Math.max(1, maxClients / STRIPES);
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    /**
+     * Takes one token for the client.
+     *
+     * @return 0 if the request is admitted, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(String clientKey) {
+        return tryAcquire(clientKey, System.nanoTime());
+    }
+
+    /** Same as {@link #tryAcquire(String)} at the given {@link System#nanoTime()} reading. */
+    long tryAcquire(String clientKey, long now) {
+        return tryAcquire(bucketFor(clientKey, now), now);
+    }
+
+    private long tryAcquire(AtomicLong bucket, long now) {
+        while (true) {
+            long tat = bucket.get();
+            long start = Math.max(tat, now);
+            long wait = start - now - burstToleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(tat, start + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    private AtomicLong bucketFor(String clientKey, long now) {
+        int h = clientKey.hashCode();
+        Stripe stripe = stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+        synchronized (stripe) {
+            AtomicLong bucket = stripe.get(clientKey);
+            if (bucket == null) {
+                // A new bucket starts full: nothing has arrived ahead of "now"
+                bucket = new AtomicLong(now);
+                stripe.put(clientKey, bucket);
+            }
+            return bucket;
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private static final class Stripe extends LinkedHashMap<String, AtomicLong> {
+
+        private final int maxEntries;
+
+        Stripe(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, AtomicLong> eldest) {
+            return size() > maxEntries;
+        }
+    }
+}
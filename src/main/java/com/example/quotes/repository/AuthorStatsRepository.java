@@ -0,0 +1,38 @@
+package com.example.quotes.repository;
+
+import com.example.quotes.entities.AuthorStats;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+
+@Repository
+public interface AuthorStatsRepository extends JpaRepository<AuthorStats, String> {
+
+    @Transactional(readOnly = true)
+    Slice<AuthorStats> findAllBy(Pageable pageable);
+
+    @Modifying
+    @Query("update AuthorStats s set s.quoteCount = s.quoteCount + :delta where s.author = :author")
+    int adjustCount(@Param("author") String author, @Param("delta") long delta);
+
+    /** Creates an empty row for the author unless one exists, waiting out a concurrent insert of it. */
+    @Modifying
+    @Query(value = "INSERT INTO quote_author_stats (author, quote_count) VALUES (:author, 0) "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("author") String author);
+
+    @Modifying
+    @Query("delete from AuthorStats s where s.author = :author and s.quoteCount <= 0")
+    int deleteIfEmpty(@Param("author") String author);
+
+    @Modifying
+    @Query(value = "INSERT INTO quote_author_stats (author, quote_count) "
+            + "SELECT author, COUNT(*) FROM quotes GROUP BY author", nativeQuery = true)
+    int rebuildFromQuotes();
+}
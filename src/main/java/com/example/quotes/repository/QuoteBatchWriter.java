@@ -0,0 +1,108 @@
+package com.example.quotes.repository;
+
+import com.example.quotes.entities.Quote;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Plain-JDBC batch inserts for the quotes table, bypassing JPA so large
+ * batches cost one round trip instead of one persist per row.
+ */
+@Repository
+public class QuoteBatchWriter {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public QuoteBatchWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the quotes that are not already stored (same text and author),
+     * skipping duplicates within the batch too.
+     *
+     * The check and the insert are not atomic: two writers adding the same
+     * new quote at once (an import running alongside the harvester, or
+     * several instances harvesting without cluster mode) can both store
+     * it. There is deliberately no unique constraint to stop that, since
+     * quotes saved through the API may repeat; a duplicate costs one row,
+     * and random sampling already skips repeats.
+     *
+     * @return the inserted quotes with their generated ids
+     */
+    public List<Quote> insertNew(List<Quote> quotes) {
+        Map<String, Quote> unique = new LinkedHashMap<>();
+        for (Quote quote : quotes) {
+            unique.putIfAbsent(key(quote.getText(), quote.getAuthor()), quote);
+        }
+        if (unique.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Set<String> existing = existingKeys(unique.values());
+        List<Quote> fresh = new ArrayList<>(unique.size());
+        for (Map.Entry<String, Quote> entry : unique.entrySet()) {
+            if (!existing.contains(entry.getKey())) {
+                fresh.add(entry.getValue());
+            }
+        }
+        if (fresh.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return insert(fresh);
+    }
+
+    private Set<String> existingKeys(Iterable<Quote> quotes) {
+        List<Object> texts = new ArrayList<>();
+        StringBuilder placeholders = new StringBuilder();
+        for (Quote quote : quotes) {
+            placeholders.append(placeholders.length() == 0 ? "?" : ",?");
+            texts.add(quote.getText());
+        }
+        Set<String> keys = new HashSet<>();
+        jdbcTemplate.query("SELECT text, author FROM quotes WHERE text IN (" + placeholders + ")",
+                rs -> {
+                    keys.add(key(rs.getString(1), rs.getString(2)));
+                },
+                texts.toArray());
+        return keys;
+    }
+
+    private List<Quote> insert(List<Quote> quotes) {
+        return jdbcTemplate.execute((ConnectionCallback<List<Quote>>) connection -> {
+            List<Quote> inserted = new ArrayList<>(quotes.size());
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO quotes (text, author) VALUES (?, ?)", new String[]{"id"})) {
+                for (Quote quote : quotes) {
+                    statement.setString(1, quote.getText());
+                    statement.setString(2, quote.getAuthor());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    int i = 0;
+                    while (keys.next() && i < quotes.size()) {
+                        Quote source = quotes.get(i++);
+                        inserted.add(new Quote(keys.getLong(1), source.getText(), source.getAuthor()));
+                    }
+                }
+            }
+            return inserted;
+        });
+    }
+
+    private static String key(String text, String author) {
+        return text + '\u0000' + author;
+    }
+}
@@ -1,11 +1,30 @@
 package com.example.quotes.repository;
 
 import com.example.quotes.entities.Quote;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 
 @Repository
 public interface QuoteRepository extends JpaRepository<Quote, Long> {
+
+    /** Smallest and largest id as a single row; both null when the table is empty. */
+    @Transactional(readOnly = true)
+    @Query("select min(q.id), max(q.id) from Quote q")
+    List<Object[]> findIdRange();
+
+    /** Served by idx_quotes_author. */
+    @Transactional(readOnly = true)
+    Slice<Quote> findByAuthor(String author, Pageable pageable);
+
+    /** Keyset page for full scans; pass a pageable sorted by id. */
+    @Transactional(readOnly = true)
+    Slice<Quote> findByIdGreaterThan(Long id, Pageable pageable);
 }
 
@@ -0,0 +1,187 @@
+package com.example.quotes.repository;
+
+import com.example.quotes.entities.Quote;
+import com.example.quotes.util.LongIntHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+
+/**
+ * Background keyset scans of the quotes table for in-memory views of it
+ * (the off-heap corpus and the similarity index).
+ *
+ * Each scan reads the table in id order, one page at a time, and hands
+ * every page to the owner, which adds rows it lacks and replaces rows that
+ * differ from what it holds. A scan that reaches the end of the table then
+ * has the owner sweep out every id the scan did not see, so deletes and
+ * edits the owner missed (say, while cluster notifications were down) are
+ * reconciled too. Seen ids are kept as a sorted long[] for the sweep, 8
+ * bytes per row for the duration of the scan.
+ *
+ * Requests that arrive while a scan runs are coalesced into one more scan,
+ * and a scan that fails is retried with backoff until one reaches the end
+ * of the table. An incomplete scan never sweeps.
+ *
+ * Ids the owner saves or deletes while a scan runs are remembered, so a
+ * page read before the write neither brings back nor reverts them, and
+ * the sweep leaves them alone. That set is guarded by the owner's lock:
+ * {@link #recordWrite} and {@link #writtenDuringScan} must be called with
+ * it held.
+ */
+public class QuoteRescanner {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuoteRescanner.class);
+
+    private static final int NONE = -1;
+    private static final long RETRY_MIN_MS = 1_000;
+    private static final long RETRY_MAX_MS = 60_000;
+
+    private final String name;
+    private final QuoteRepository quoteRepository;
+    private final int pageSize;
+    private final Lock ownerLock;
+    private final Consumer<List<Quote>> pageHandler;
+    private final Consumer<LongPredicate> sweepHandler;
+    private final LongConsumer completionHandler;
+
+    private LongIntHashMap writtenDuringScan;
+    private final AtomicBoolean scanning = new AtomicBoolean();
+    private volatile boolean scanRequested;
+
+    /**
+     * @param name              thread name, also used in log messages
+     * @param ownerLock         the owner's write lock, guarding its view and the deleted set
+     * @param pageHandler       applies one page to the view; called without the lock held
+     * @param sweepHandler      removes every held id the given predicate rejects; called with the lock held
+     * @param completionHandler called with the elapsed milliseconds when a scan reaches the end
+     */
+    public QuoteRescanner(String name, QuoteRepository quoteRepository, int pageSize, Lock ownerLock,
+                          Consumer<List<Quote>> pageHandler, Consumer<LongPredicate> sweepHandler,
+                          LongConsumer completionHandler) {
+        this.name = name;
+        this.quoteRepository = quoteRepository;
+        this.pageSize = pageSize;
+        this.ownerLock = ownerLock;
+        this.pageHandler = pageHandler;
+        this.sweepHandler = sweepHandler;
+        this.completionHandler = completionHandler;
+    }
+
+    /** Starts a scan on a background thread, or queues one more if a scan is running. */
+    public void request() {
+        scanRequested = true;
+        if (scanning.compareAndSet(false, true)) {
+            Thread scanner = new Thread(this::scanLoop, name);
+            scanner.setDaemon(true);
+            scanner.start();
+        }
+    }
+
+    /** Records a save or delete the owner applied from an event. Call with the owner's lock held. */
+    public void recordWrite(long id) {
+        if (writtenDuringScan != null) {
+            writtenDuringScan.put(id, 1);
+        }
+    }
+
+    /** Whether a page row for this id is older than what the owner holds. Call with the owner's lock held. */
+    public boolean writtenDuringScan(long id) {
+        return writtenDuringScan != null && writtenDuringScan.get(id, NONE) != NONE;
+    }
+
+    private void scanLoop() {
+        long backoffMs = RETRY_MIN_MS;
+        do {
+            while (scanRequested) {
+                scanRequested = false;
+                if (scan()) {
+                    backoffMs = RETRY_MIN_MS;
+                    continue;
+                }
+                scanRequested = true;
+                logger.info("Retrying {} in {} ms", name, backoffMs);
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException e) {
+                    scanning.set(false);
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, RETRY_MAX_MS);
+            }
+            scanning.set(false);
+        } while (scanRequested && scanning.compareAndSet(false, true));
+    }
+
+    /**
+     * Runs one scan on the calling thread.
+     *
+     * @return whether it reached the end of the table
+     */
+    public boolean scan() {
+        long started = System.nanoTime();
+        long lastId = Long.MIN_VALUE;
+        long[] seen = new long[1024];
+        int seenCount = 0;
+        ownerLock.lock();
+        try {
+            writtenDuringScan = new LongIntHashMap(16);
+        } finally {
+            ownerLock.unlock();
+        }
+        boolean complete = false;
+        try {
+            while (true) {
+                Slice<Quote> page = quoteRepository.findByIdGreaterThan(lastId,
+                        PageRequest.of(0, pageSize, Sort.by("id")));
+                List<Quote> quotes = page.getContent();
+                if (quotes.isEmpty()) {
+                    break;
+                }
+                pageHandler.accept(quotes);
+                if (seenCount + quotes.size() > seen.length) {
+                    seen = Arrays.copyOf(seen, Math.max(seen.length * 2, seenCount + quotes.size()));
+                }
+                for (Quote quote : quotes) {
+                    // Pages come in id order, so seen stays sorted
+                    seen[seenCount++] = quote.getId();
+                }
+                lastId = quotes.get(quotes.size() - 1).getId();
+                if (!page.hasNext()) {
+                    break;
+                }
+            }
+            complete = true;
+        } catch (RuntimeException e) {
+            logger.warn("{} stopped early: {}", name, e.getMessage());
+        } finally {
+            ownerLock.lock();
+            try {
+                if (complete) {
+                    long[] inTable = seen;
+                    int inTableCount = seenCount;
+                    LongIntHashMap written = writtenDuringScan;
+                    sweepHandler.accept(id -> Arrays.binarySearch(inTable, 0, inTableCount, id) >= 0
+                            || written.get(id, NONE) != NONE);
+                }
+                writtenDuringScan = null;
+            } finally {
+                ownerLock.unlock();
+            }
+        }
+        if (complete) {
+            completionHandler.accept(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        }
+        return complete;
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.quotes.service;
+
+import com.example.quotes.dto.AuthorCount;
+import com.example.quotes.dto.PageResponse;
+import com.example.quotes.entities.AuthorStats;
+import com.example.quotes.entities.Quote;
+import com.example.quotes.repository.AuthorStatsRepository;
+import com.example.quotes.repository.QuoteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Author listings backed by the quote_author_stats summary table.
+ *
+ * Counts are adjusted by +1/-1 on every quote save and delete, so reading
+ * them is an index scan over authors rather than a GROUP BY over quotes,
+ * and its cost does not grow with the corpus.
+ *
+ * Writers call {@link #quotesAdded}, {@link #quoteRemoved} and
+ * {@link #rebuild} inside the transaction that changes the quotes, so the
+ * counts commit or roll back together with the rows they count.
+ */
+@Service
+public class AuthorStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthorStatsService.class);
+
+    static final int MAX_PAGE_SIZE = 100;
+
+    private final AuthorStatsRepository statsRepository;
+    private final QuoteRepository quoteRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public AuthorStatsService(AuthorStatsRepository statsRepository, QuoteRepository quoteRepository,
+                              TransactionTemplate transactionTemplate) {
+        this.statsRepository = statsRepository;
+        this.quoteRepository = quoteRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Transactional(readOnly = true)
+    public PageResponse<AuthorCount> getAuthorCounts(int page, int size) {
+        Slice<AuthorStats> slice = statsRepository.findAllBy(pageRequest(page, size,
+                Sort.by(Sort.Order.desc("quoteCount"), Sort.Order.asc("author"))));
+        return new PageResponse<>(
+                slice.map(stats -> new AuthorCount(stats.getAuthor(), stats.getQuoteCount())).getContent(),
+                slice.getNumber(), slice.getSize(), slice.hasNext());
+    }
+
+    @Transactional(readOnly = true)
+    public PageResponse<Quote> getQuotesByAuthor(String author, int page, int size) {
+        if (author == null || author.trim().isEmpty()) {
+            throw new IllegalArgumentException("Author cannot be empty");
+        }
+        Slice<Quote> slice = quoteRepository.findByAuthor(author, pageRequest(page, size, Sort.by("id")));
+        return new PageResponse<>(slice.getContent(), slice.getNumber(), slice.getSize(), slice.hasNext());
+    }
+
+    /**
+     * Seeds the summary table from the quotes table the first time the
+     * app runs against an existing corpus.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (statsRepository.count() > 0 || quoteRepository.count() == 0) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (DataIntegrityViolationException e) {
+            logger.info("Author stats were seeded concurrently by another instance");
+        }
+    }
+
+    /** Recomputes all counts with one aggregate query; used after bulk loads. */
+    public void rebuild() {
+        Integer authors = transactionTemplate.execute(status -> {
+            statsRepository.deleteAllInBatch();
+            return statsRepository.rebuildFromQuotes();
+        });
+        logger.info("Rebuilt author stats for {} authors", authors);
+    }
+
+    /** Counts newly inserted quotes; joins the caller's transaction. */
+    public void quotesAdded(Collection<Quote> quotes) {
+        Map<String, Long> perAuthor = new TreeMap<>();
+        for (Quote quote : quotes) {
+            if (quote.getAuthor() != null) {
+                perAuthor.merge(quote.getAuthor(), 1L, Long::sum);
+            }
+        }
+        // Sorted, so concurrent writers lock author rows in the same order
+        transactionTemplate.executeWithoutResult(status -> perAuthor.forEach(this::adjust));
+    }
+
+    /** Uncounts a deleted quote; joins the caller's transaction. */
+    public void quoteRemoved(Quote quote) {
+        if (quote.getAuthor() != null) {
+            transactionTemplate.executeWithoutResult(status -> adjust(quote.getAuthor(), -1));
+        }
+    }
+
+    private void adjust(String author, long delta) {
+        if (statsRepository.adjustCount(author, delta) > 0) {
+            if (delta < 0) {
+                statsRepository.deleteIfEmpty(author);
+            }
+            return;
+        }
+        if (delta > 0) {
+            // First quote by this author; an upsert, since a failed insert would abort the caller's transaction
+            statsRepository.insertIfAbsent(author);
+            statsRepository.adjustCount(author, delta);
+        }
+    }
+
+    private static PageRequest pageRequest(int page, int size, Sort sort) {
+        if (page < 0) {
+            throw new IllegalArgumentException("page cannot be negative");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return PageRequest.of(page, size, sort);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.quotes.service;
+
+import com.example.quotes.entities.Quote;
+
+/**
+ * Entry of the in-memory random-quote cache. The JSON encoding is produced
+ * once when the entry is filled so serving it is a plain byte copy.
+ */
+public final class CachedQuote {
+
+    private final Quote quote;
+    private final EncodedJson json;
+
+    public CachedQuote(Quote quote, EncodedJson json) {
+        this.quote = quote;
+        this.json = json;
+    }
+
+    public Quote getQuote() {
+        return quote;
+    }
+
+    public EncodedJson getJson() {
+        return json;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.quotes.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A response body serialized once and then written as-is on every request.
+ * The byte arrays are shared between requests and must never be modified
+ * by callers; they are only handed to the HTTP message converter.
+ */
+public final class EncodedJson {
+
+    private final byte[] identity;
+    private final byte[] gzip;
+
+    private EncodedJson(byte[] identity, byte[] gzip) {
+        this.identity = identity;
+        this.gzip = gzip;
+    }
+
+    /**
+     * Serializes the value once. Used for small bodies such as a single
+     * cached quote, where compressing would cost more than it saves.
+     */
+    public static EncodedJson of(ObjectMapper objectMapper, Object value) {
+        try {
+            return new EncodedJson(objectMapper.writeValueAsBytes(value), null);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize response body", e);
+        }
+    }
+
+    /**
+     * Keeps a gzip variant next to an already serialized body, so list
+     * responses are not recompressed for every client.
+     */
+    public static EncodedJson precompressed(byte[] identity) {
+        return new EncodedJson(identity, gzip(identity));
+    }
+
+    /** Concatenates already-encoded JSON values into one JSON array body. */
+    public static byte[] joinArray(List<EncodedJson> values) {
+        int length = 2 + Math.max(0, values.size() - 1);
+        for (EncodedJson value : values) {
+            length += value.identity.length;
+        }
+        byte[] out = new byte[length];
+        int pos = 0;
+        out[pos++] = '[';
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                out[pos++] = ',';
+            }
+            byte[] bytes = values.get(i).identity;
+            System.arraycopy(bytes, 0, out, pos, bytes.length);
+            pos += bytes.length;
+        }
+        out[pos] = ']';
+        return out;
+    }
+
+    public byte[] identity() {
+        return identity;
+    }
+
+    public boolean hasGzip() {
+        return gzip != null;
+    }
+
+    public byte[] gzip() {
+        return gzip;
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, bytes.length / 4));
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to gzip response body", e);
+        }
+        return out.toByteArray();
+    }
+}
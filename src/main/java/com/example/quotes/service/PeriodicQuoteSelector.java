@@ -0,0 +1,194 @@
+package com.example.quotes.service;
+
+import com.example.quotes.entities.Quote;
+import com.example.quotes.exception.QuoteNotFoundException;
+import com.example.quotes.repository.QuoteRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deterministic "quote of the period" picks over the stored quotes. A pick
+ * hashes to an id within the table's id range and takes the first quote at
+ * or after it, one primary-key lookup instead of an OFFSET scan. Every node
+ * computes the same pick for the same period, and the response stays
+ * identical until the period ends, so it can be cached by a CDN or the
+ * browser up to the boundary.
+ *
+ * Picks are computed at period rollover and held pre-encoded; requests
+ * only read the current selection. Seeded picks are cached per seed until
+ * the daily boundary, so a quote deleted during the day does not change
+ * what an already served seed returns.
+ */
+@Service
+public class PeriodicQuoteSelector {
+
+    private static final Logger logger = LoggerFactory.getLogger(PeriodicQuoteSelector.class);
+
+    public enum Period {
+        HOURLY(ChronoUnit.HOURS),
+        DAILY(ChronoUnit.DAYS);
+
+        private final ChronoUnit unit;
+
+        Period(ChronoUnit unit) {
+            this.unit = unit;
+        }
+
+        Instant start(Instant now) {
+            return now.atZone(ZoneOffset.UTC).truncatedTo(unit).toInstant();
+        }
+
+        Instant end(Instant start) {
+            return start.plus(1, unit);
+        }
+    }
+
+    /** A precomputed response body and the instant it stops being valid. */
+    public record Selection(EncodedJson json, Instant expiresAt) {
+    }
+
+    private static final PageRequest FIRST_BY_ID = PageRequest.of(0, 1, Sort.by("id"));
+
+    /** Smallest and largest quote id when the range was taken. */
+    private record IdRange(long min, long max) {
+    }
+
+    private final QuoteRepository quoteRepository;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+
+    private final Map<Period, Selection> selections = new EnumMap<>(Period.class);
+    // Access-ordered, so the least recently requested seed is evicted first
+    private final Map<Long, Selection> seededSelections;
+
+    // Id range captured at the daily rollover; keeps seed -> quote stable for the day
+    private volatile IdRange seedRange;
+    private volatile Instant seedRangeExpiresAt = Instant.EPOCH;
+
+    public PeriodicQuoteSelector(QuoteRepository quoteRepository, ObjectMapper objectMapper,
+                                 @Value("${quotes.seeded.cache-size:10000}") int seededCacheSize) {
+        this.quoteRepository = quoteRepository;
+        this.objectMapper = objectMapper;
+        this.clock = Clock.systemUTC();
+        this.seededSelections = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Selection> eldest) {
+                return size() > seededCacheSize;
+            }
+        };
+    }
+
+    @Scheduled(cron = "0 0 * * * *", zone = "UTC")
+    public void rollHourly() {
+        roll(Period.HOURLY);
+    }
+
+    @Scheduled(cron = "0 0 0 * * *", zone = "UTC")
+    public void rollDaily() {
+        roll(Period.DAILY);
+    }
+
+    public Selection current(Period period) {
+        Selection selection;
+        synchronized (selections) {
+            selection = selections.get(period);
+        }
+        if (selection == null || !clock.instant().isBefore(selection.expiresAt())) {
+            // First request after boot, or the rollover job has not run yet
+            selection = roll(period);
+        }
+        return selection;
+    }
+
+    /**
+     * Seeded pick over the id range taken at the last daily rollover. The
+     * mapping only changes at the daily boundary, which is also when the
+     * returned selection expires.
+     */
+    public Selection seeded(long seed) {
+        Instant now = clock.instant();
+        if (seedRange == null || !now.isBefore(seedRangeExpiresAt)) {
+            roll(Period.DAILY);
+        }
+        Selection selection;
+        synchronized (seededSelections) {
+            selection = seededSelections.get(seed);
+        }
+        if (selection != null && now.isBefore(selection.expiresAt())) {
+            return selection;
+        }
+        Quote quote = quoteAt(seedRange, mix(seed));
+        selection = new Selection(EncodedJson.of(objectMapper, quote), seedRangeExpiresAt);
+        synchronized (seededSelections) {
+            seededSelections.put(seed, selection);
+        }
+        return selection;
+    }
+
+    private Selection roll(Period period) {
+        Instant start = period.start(clock.instant());
+        Instant end = period.end(start);
+        IdRange range = idRange();
+
+        Quote quote = quoteAt(range, mix(start.getEpochSecond() * 31 + period.ordinal()));
+        Selection selection = new Selection(EncodedJson.of(objectMapper, quote), end);
+        synchronized (selections) {
+            selections.put(period, selection);
+        }
+        if (period == Period.DAILY) {
+            synchronized (seededSelections) {
+                seededSelections.clear();
+            }
+            seedRange = range;
+            seedRangeExpiresAt = end;
+        }
+        logger.info("Selected {} quote until {}: {} - {}", period, end, quote.getText(), quote.getAuthor());
+        return selection;
+    }
+
+    private IdRange idRange() {
+        List<Object[]> range = quoteRepository.findIdRange();
+        if (range.isEmpty() || range.get(0)[0] == null) {
+            return null;
+        }
+        return new IdRange(((Number) range.get(0)[0]).longValue(), ((Number) range.get(0)[1]).longValue());
+    }
+
+    private Quote quoteAt(IdRange range, long hash) {
+        if (range == null) {
+            throw new QuoteNotFoundException("No quotes stored yet to pick from");
+        }
+        long id = range.min() + Math.floorMod(hash, range.max() - range.min() + 1);
+        List<Quote> page = quoteRepository.findByIdGreaterThan(id - 1, FIRST_BY_ID).getContent();
+        if (page.isEmpty()) {
+            // Rows at the top of the range were deleted since it was taken; wrap around
+            page = quoteRepository.findByIdGreaterThan(Long.MIN_VALUE, FIRST_BY_ID).getContent();
+            if (page.isEmpty()) {
+                throw new QuoteNotFoundException("No quotes stored yet to pick from");
+            }
+        }
+        return page.get(0);
+    }
+
+    // SplitMix64 finalizer: spreads consecutive periods/seeds across the corpus
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.quotes.service;
+
+import com.example.quotes.entities.Quote;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The in-memory random-quote cache: the most recent provider fetches,
+ * oldest evicted first. Writers replace the backing array under a lock;
+ * readers grab the current array reference and never copy or lock.
+ */
+@Component
+public class QuoteCache {
+
+    public static final int CAPACITY = 50;
+
+    private final ObjectMapper objectMapper;
+
+    private volatile CachedQuote[] entries = new CachedQuote[0];
+
+    public QuoteCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /** Encodes the quote once and appends it, evicting the oldest entry when full. */
+    public CachedQuote add(Quote quote) {
+        CachedQuote entry = encode(quote);
+        synchronized (this) {
+            CachedQuote[] current = entries;
+            int keep = Math.min(current.length, CAPACITY - 1);
+            CachedQuote[] next = Arrays.copyOfRange(current, current.length - keep, current.length + 1);
+            next[keep] = entry;
+            entries = next;
+        }
+        return entry;
+    }
+
+    /** Replaces the whole cache, keeping the last {@link #CAPACITY} quotes. */
+    public void replaceAll(List<Quote> quotes) {
+        int from = Math.max(0, quotes.size() - CAPACITY);
+        CachedQuote[] next = new CachedQuote[quotes.size() - from];
+        for (int i = from; i < quotes.size(); i++) {
+            next[i - from] = encode(quotes.get(i));
+        }
+        synchronized (this) {
+            entries = next;
+        }
+    }
+
+    public CachedQuote encode(Quote quote) {
+        return new CachedQuote(quote, EncodedJson.of(objectMapper, quote));
+    }
+
+    /**
+     * Current entries, oldest first. The array is shared and must not be
+     * modified; it is never mutated after publication, so it is safe to
+     * index without further synchronization.
+     */
+    public CachedQuote[] entries() {
+        return entries;
+    }
+
+    public int size() {
+        return entries.length;
+    }
+}
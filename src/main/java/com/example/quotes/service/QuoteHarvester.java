@@ -0,0 +1,242 @@
+package com.example.quotes.service;
+
+import com.example.quotes.entities.Quote;
+import com.example.quotes.event.QuoteSavedEvent;
+import com.example.quotes.repository.QuoteBatchWriter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind pipeline that keeps every quote fetched from the external
+ * providers, so the local database fallback grows into a real corpus.
+ *
+ * Quotes are queued without touching the database and flushed by one
+ * background thread in de-duplicated JDBC batches, whenever a batch fills
+ * up or the flush interval passes. If the database is slow or down the
+ * batch is retried and the bounded queue fills, at which point producers
+ * wait briefly and then drop. A batch that keeps failing is written one
+ * quote at a time, so a single row the database refuses is discarded
+ * instead of blocking the pipeline. Whatever is queued is flushed on
+ * shutdown.
+ */
+@Component
+public class QuoteHarvester implements SmartLifecycle, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuoteHarvester.class);
+
+    // Failed flushes of the same batch before it is written row by row
+    private static final int MAX_BATCH_ATTEMPTS = 3;
+
+    private final QuoteBatchWriter batchWriter;
+    private final AuthorStatsService authorStats;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long offerTimeoutMs;
+    private final long retryBackoffMs;
+    private final BlockingQueue<Quote> queue;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+    private volatile boolean running;
+    private Thread flusher;
+
+    public QuoteHarvester(QuoteBatchWriter batchWriter,
+                          AuthorStatsService authorStats,
+                          TransactionTemplate transactionTemplate,
+                          ApplicationEventPublisher eventPublisher,
+                          @Value("${quotes.harvest.enabled:true}") boolean enabled,
+                          @Value("${quotes.harvest.queue-capacity:1000}") int queueCapacity,
+                          @Value("${quotes.harvest.batch-size:100}") int batchSize,
+                          @Value("${quotes.harvest.flush-interval-ms:30000}") long flushIntervalMs,
+                          @Value("${quotes.harvest.offer-timeout-ms:50}") long offerTimeoutMs,
+                          @Value("${quotes.harvest.retry-backoff-ms:1000}") long retryBackoffMs) {
+        this.batchWriter = batchWriter;
+        this.authorStats = authorStats;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.retryBackoffMs = retryBackoffMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    /**
+     * Queues a freshly fetched quote for persistence. Never blocks longer
+     * than the offer timeout; a full queue means the database is behind
+     * and the quote is dropped. Quotes the quotes table cannot hold (blank,
+     * or longer than its columns) are skipped here.
+     */
+    public void offer(Quote quote) {
+        if (!enabled || quote == null || quote.getText() == null || quote.getAuthor() == null) {
+            return;
+        }
+        String text = quote.getText().trim();
+        String author = quote.getAuthor().trim();
+        if (text.isEmpty() || author.isEmpty()
+                || text.length() > Quote.MAX_TEXT_LENGTH || author.length() > Quote.MAX_AUTHOR_LENGTH) {
+            logger.debug("Not harvesting quote that does not fit the quotes table: {} chars by {}",
+                    text.length(), author);
+            return;
+        }
+        try {
+            if (!queue.offer(new Quote(text, author), offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                long total = dropped.incrementAndGet();
+                logger.warn("Harvest queue full, dropped quote ({} dropped so far)", total);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::flushLoop, "quote-harvester");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        flusher.interrupt();
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("quotes.harvest.dropped", dropped, AtomicLong::get)
+                .description("Fetched quotes dropped because the harvest queue was full")
+                .register(registry);
+        FunctionCounter.builder("quotes.harvest.discarded", discarded, AtomicLong::get)
+                .description("Queued quotes the database refused to store")
+                .register(registry);
+    }
+
+    private void flushLoop() {
+        List<Quote> batch = new ArrayList<>(batchSize);
+        long backoffMs = retryBackoffMs;
+        int attempts = 0;
+        while (running) {
+            try {
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    Quote next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+                if (!batch.isEmpty()) {
+                    if (attempts < MAX_BATCH_ATTEMPTS) {
+                        write(batch);
+                    } else {
+                        writeOneByOne(batch);
+                    }
+                    batch.clear();
+                }
+                backoffMs = retryBackoffMs;
+                attempts = 0;
+            } catch (InterruptedException e) {
+                break;
+            } catch (RuntimeException e) {
+                attempts++;
+                // Keep the batch; the queue absorbs new quotes until the DB recovers
+                logger.warn("Harvest flush of {} quotes failed ({}), retrying in {} ms",
+                        batch.size(), e.getMessage(), backoffMs);
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException ie) {
+                    break;
+                }
+                backoffMs = Math.min(backoffMs * 2, 60_000);
+            }
+        }
+
+        // Shutdown: flush what we hold plus whatever is still queued.
+        // Clear the interrupt from stop() so the pool hands out a connection.
+        Thread.interrupted();
+        queue.drainTo(batch);
+        try {
+            for (int from = 0; from < batch.size(); from += batchSize) {
+                write(batch.subList(from, Math.min(batch.size(), from + batchSize)));
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Final harvest flush failed, {} quotes lost: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Writes each quote on its own, discarding the ones the database
+     * rejects. Written and discarded quotes are removed from the batch, so
+     * any other failure (the database being down) retries only the rest.
+     */
+    private void writeOneByOne(List<Quote> batch) {
+        for (Iterator<Quote> it = batch.iterator(); it.hasNext(); ) {
+            Quote quote = it.next();
+            try {
+                write(List.of(quote));
+            } catch (DataIntegrityViolationException e) {
+                long total = discarded.incrementAndGet();
+                logger.warn("Discarding harvested quote by {} the database refused ({} discarded so far): {}",
+                        quote.getAuthor(), total, e.getMostSpecificCause().getMessage());
+            }
+            it.remove();
+        }
+    }
+
+    private void write(List<Quote> batch) {
+        List<Quote> inserted = transactionTemplate.execute(status -> {
+            List<Quote> fresh = batchWriter.insertNew(batch);
+            authorStats.quotesAdded(fresh);
+            return fresh;
+        });
+        for (Quote quote : inserted) {
+            eventPublisher.publishEvent(new QuoteSavedEvent(quote));
+        }
+        logger.info("Harvested {} new quotes from a batch of {} ({} already stored)",
+                inserted.size(), batch.size(), batch.size() - inserted.size());
+    }
+}
@@ -2,6 +2,9 @@ package com.example.quotes.service;
 
 import com.example.quotes.dto.ChatMessage;
 import com.example.quotes.entities.Quote;
+
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 
@@ -9,8 +12,17 @@ public interface QuoteService {
 
     List<Quote> getAllQuotes();
 
+    /** The cached GET /api/quotes body, or null when the list is too large to hold and must be streamed. */
+    EncodedJson getAllQuotesEncoded();
+
+    void writeAllQuotes(OutputStream out) throws IOException;
+
     Quote getRandomQuoteFromAPI();
 
+    CachedQuote getRandomCachedQuote();
+
+    List<CachedQuote> getRandomCachedQuotes(int count);
+
     Quote saveQuote(Quote quote);
 
     void deleteQuote(Long id);
@@ -2,22 +2,53 @@ package com.example.quotes.service;
 
 import com.example.quotes.dto.ChatMessage;
 import com.example.quotes.entities.Quote;
+import com.example.quotes.event.QuoteCacheRefreshedEvent;
+import com.example.quotes.event.QuoteDeletedEvent;
+import com.example.quotes.event.QuoteSavedEvent;
+import com.example.quotes.event.QuotesImportedEvent;
 import com.example.quotes.exception.QuoteNotFoundException;
 import com.example.quotes.exception.ExternalApiException;
 import com.example.quotes.repository.QuoteRepository;
+import com.example.quotes.cluster.ClusterCacheCoordinator;
+import com.example.quotes.corpus.OffHeapQuoteCorpus;
 import com.example.quotes.service.ai.GroqAiClient;
+import com.example.quotes.util.JsonFields;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.client.RestClientException;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Random;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
 public class QuoteServiceImpl implements QuoteService {
@@ -26,43 +57,181 @@ public class QuoteServiceImpl implements QuoteService {
 
     private static final String ZENQUOTES_API_URL = "https://zenquotes.io/api/random";
     private static final String DUMMYJSON_API_URL = "https://dummyjson.com/quotes/random";
+    static final int MAX_RANDOM_COUNT = 50;
+
     private static final String FORISMATIC_API_URL = "https://api.forismatic.com/api/1.0/?method=getQuote&format=json&lang=en";
 
     private final QuoteRepository quoteRepository;
     private final RestTemplate restTemplate;
     private final GroqAiClient groqAiClient;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<ClusterCacheCoordinator> clusterCoordinator;
+    private final QuoteHarvester quoteHarvester;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OffHeapQuoteCorpus quoteCorpus;
+    private final TransactionTemplate transactionTemplate;
+    private final AuthorStatsService authorStats;
+    private final int snapshotMaxQuotes;
+    private final int listPageSize;
     private final Random random = new Random();
 
-    // In-memory cache refreshed on a schedule, not per-request
-    private final List<Quote> cache = new CopyOnWriteArrayList<>();
+    // In-memory cache refreshed on a schedule, not per-request.
+    // Entries carry their JSON encoding so /random never re-serializes.
+    private final QuoteCache cache;
+
+    // Encoded GET /api/quotes body; dropped whenever a quote is saved or deleted
+    private volatile EncodedJson allQuotesSnapshot;
+    // Bumped on every invalidation, so a snapshot built from rows read before a write is not kept
+    private final Object allQuotesLock = new Object();
+    private long allQuotesGeneration;
 
     @Autowired
-    public QuoteServiceImpl(QuoteRepository quoteRepository, RestTemplate restTemplate, GroqAiClient groqAiClient) {
+    public QuoteServiceImpl(QuoteRepository quoteRepository, RestTemplate restTemplate,
+                            GroqAiClient groqAiClient, ObjectMapper objectMapper, QuoteCache cache,
+                            ObjectProvider<ClusterCacheCoordinator> clusterCoordinator,
+                            QuoteHarvester quoteHarvester, ApplicationEventPublisher eventPublisher,
+                            OffHeapQuoteCorpus quoteCorpus, TransactionTemplate transactionTemplate,
+                            AuthorStatsService authorStats,
+                            @Value("${quotes.list.snapshot-max-quotes:10000}") int snapshotMaxQuotes,
+                            @Value("${quotes.list.page-size:1000}") int listPageSize) {
         this.quoteRepository = quoteRepository;
         this.restTemplate = restTemplate;
         this.groqAiClient = groqAiClient;
+        this.objectMapper = objectMapper;
+        this.cache = cache;
+        this.clusterCoordinator = clusterCoordinator;
+        this.quoteHarvester = quoteHarvester;
+        this.eventPublisher = eventPublisher;
+        this.quoteCorpus = quoteCorpus;
+        this.transactionTemplate = transactionTemplate;
+        this.authorStats = authorStats;
+        this.snapshotMaxQuotes = snapshotMaxQuotes;
+        this.listPageSize = listPageSize;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Quote> getAllQuotes() {
         logger.info("Fetching all quotes from database");
         return quoteRepository.findAll();
     }
 
+    /**
+     * Serializes and gzips the full list once, then reuses both variants
+     * until the next save or delete. Returns null instead when the id range
+     * allows more than {@code quotes.list.snapshot-max-quotes} rows; such a
+     * list is streamed with {@link #writeAllQuotes} rather than held on the
+     * heap twice over.
+     */
+    @Override
+    public EncodedJson getAllQuotesEncoded() {
+        EncodedJson snapshot = allQuotesSnapshot;
+        if (snapshot == null) {
+            long generation;
+            synchronized (allQuotesLock) {
+                generation = allQuotesGeneration;
+            }
+            if (!fitsInSnapshot()) {
+                return null;
+            }
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            try {
+                writeAllQuotes(body);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to serialize quote list", e);
+            }
+            snapshot = EncodedJson.precompressed(body.toByteArray());
+            synchronized (allQuotesLock) {
+                if (allQuotesGeneration == generation) {
+                    allQuotesSnapshot = snapshot;
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Writes the list one keyset page at a time, so only a page of rows is
+     * held however large the table is. Each page is its own read, so rows
+     * written while the list is being sent may or may not be included;
+     * {@code count} comes last and always matches the quotes written.
+     */
+    @Override
+    public void writeAllQuotes(OutputStream out) throws IOException {
+        logger.info("Streaming all quotes from database");
+        ObjectWriter quoteWriter = objectMapper.writerFor(Quote.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        PageRequest pageRequest = PageRequest.of(0, listPageSize, Sort.by("id"));
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            // The caller owns the stream, e.g. a gzip wrapper it still has to finish
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartObject();
+            json.writeArrayFieldStart("quotes");
+            long count = 0;
+            long lastId = Long.MIN_VALUE;
+            while (true) {
+                Slice<Quote> page = quoteRepository.findByIdGreaterThan(lastId, pageRequest);
+                for (Quote quote : page) {
+                    quoteWriter.writeValue(json, quote);
+                    lastId = quote.getId();
+                }
+                count += page.getNumberOfElements();
+                if (!page.hasNext()) {
+                    break;
+                }
+            }
+            json.writeEndArray();
+            json.writeNumberField("count", count);
+            if (count == 0) {
+                json.writeStringField("message", "No quotes found in database");
+            }
+            json.writeEndObject();
+        }
+    }
+
+    /** Row count bounded by the id range, which is two index lookups rather than a count. */
+    private boolean fitsInSnapshot() {
+        List<Object[]> range = quoteRepository.findIdRange();
+        if (range.isEmpty() || range.get(0)[0] == null) {
+            return true;
+        }
+        long min = ((Number) range.get(0)[0]).longValue();
+        long max = ((Number) range.get(0)[1]).longValue();
+        return max - min < snapshotMaxQuotes;
+    }
+
+    /** Also fires for writes on other nodes in cluster mode, via ClusterCacheCoordinator. */
+    @EventListener({QuoteSavedEvent.class, QuoteDeletedEvent.class, QuotesImportedEvent.class})
+    public void invalidateAllQuotesSnapshot() {
+        synchronized (allQuotesLock) {
+            allQuotesGeneration++;
+            allQuotesSnapshot = null;
+        }
+    }
+
     /**
      * Refreshes the in-memory cache every 5 minutes instead of calling
      * the external API on every user request. This is what actually
      * fixes the 429s — ZenQuotes' free tier chokes on per-request calls,
      * not on a background job hitting it once every 5 minutes.
+     *
+     * In cluster mode only the elected leader fetches; it shares the result
+     * through the database and the other nodes pick it up from there.
      */
     @Scheduled(fixedRate = 300000) // every 5 minutes
     public void refreshQuoteCache() {
+        ClusterCacheCoordinator cluster = clusterCoordinator.getIfAvailable();
+        if (cluster != null && !cluster.tryAcquireLeadership()) {
+            logger.debug("Not the cluster refresh leader, skipping provider fetch");
+            return;
+        }
         try {
             Quote quote = fetchFromExternalChain();
             cache.add(quote);
-            if (cache.size() > 50) {
-                cache.remove(0);
+            if (cluster != null) {
+                cluster.publish(quote);
             }
+            eventPublisher.publishEvent(new QuoteCacheRefreshedEvent(quote));
             logger.info("Cache refreshed, size now {}", cache.size());
         } catch (Exception e) {
             logger.warn("Scheduled cache refresh failed, keeping existing cache (size {})", cache.size(), e);
@@ -71,38 +240,169 @@ public class QuoteServiceImpl implements QuoteService {
 
     @Override
     public Quote getRandomQuoteFromAPI() {
+        // Hand out a copy so callers that persist it never mutate a cache entry
+        Quote quote = getRandomCachedQuote().getQuote();
+        return new Quote(quote.getText(), quote.getAuthor());
+    }
+
+    @Override
+    public CachedQuote getRandomCachedQuote() {
         logger.info("Serving random quote request");
 
-        if (!cache.isEmpty()) {
-            Quote cached = cache.get(random.nextInt(cache.size()));
-            logger.info("Served from cache: {} - {}", cached.getText(), cached.getAuthor());
+        CachedQuote[] entries = cache.entries();
+        if (entries.length > 0) {
+            CachedQuote cached = entries[random.nextInt(entries.length)];
+            logger.info("Served from cache: {} - {}", cached.getQuote().getText(), cached.getQuote().getAuthor());
             return cached;
         }
 
         // Cold start: cache is empty (app just booted), fetch live
         logger.info("Cache empty, fetching live via fallback chain");
-        return fetchFromExternalChain();
+        return cache.encode(fetchFromExternalChain());
+    }
+
+    /**
+     * Picks {@code count} distinct quotes in one call: sampled without
+     * replacement from the cache array in place, then topped up from the
+     * database when the cache holds fewer distinct quotes than requested.
+     */
+    @Override
+    public List<CachedQuote> getRandomCachedQuotes(int count) {
+        if (count < 1 || count > MAX_RANDOM_COUNT) {
+            throw new IllegalArgumentException("count must be between 1 and " + MAX_RANDOM_COUNT);
+        }
+        logger.info("Serving {} random quotes", count);
+
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        CachedQuote[] entries = cache.entries();
+        List<CachedQuote> result = new ArrayList<>(count);
+        Set<String> seen = new HashSet<>();
+
+        for (int index : sampleIndices(entries.length, Math.min(count, entries.length), rnd)) {
+            CachedQuote entry = entries[index];
+            // Providers repeat themselves, so the cache may hold the same quote twice
+            if (seen.add(identityKey(entry.getQuote()))) {
+                result.add(entry);
+            }
+        }
+        if (result.size() < count) {
+            for (Quote quote : sampleFromDatabase(count - result.size(), seen, rnd)) {
+                result.add(cache.encode(quote));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * k distinct indices out of [0, n) using Floyd's algorithm, then shuffled.
+     * Only the k-sized result is allocated; the source is never copied.
+     */
+    private static int[] sampleIndices(int n, int k, Random rnd) {
+        int[] picks = new int[k];
+        int size = 0;
+        for (int j = n - k; j < n; j++) {
+            int t = rnd.nextInt(j + 1);
+            boolean taken = false;
+            for (int i = 0; i < size; i++) {
+                if (picks[i] == t) {
+                    taken = true;
+                    break;
+                }
+            }
+            picks[size++] = taken ? j : t;
+        }
+        for (int i = k - 1; i > 0; i--) {
+            int swap = rnd.nextInt(i + 1);
+            int tmp = picks[i];
+            picks[i] = picks[swap];
+            picks[swap] = tmp;
+        }
+        return picks;
+    }
+
+    /**
+     * Random distinct quotes from the database without loading the table.
+     * Served from the off-heap corpus once it is loaded; otherwise probes
+     * random ids in [min(id), max(id)] with one IN query per round. If the
+     * id space is too sparse for that, each remaining pick is the first row
+     * at or after a random id, an index range scan rather than an OFFSET
+     * scan (rows right after large gaps are favoured, which is fine for a
+     * fallback).
+     */
+    private List<Quote> sampleFromDatabase(int needed, Set<String> seen, Random rnd) {
+        List<Quote> found = new ArrayList<>(needed);
+        if (quoteCorpus.isReady()) {
+            for (int attempt = 0; attempt < needed * 4 && found.size() < needed; attempt++) {
+                Quote quote = quoteCorpus.randomQuote(rnd);
+                if (quote == null) {
+                    break;
+                }
+                if (seen.add(identityKey(quote))) {
+                    found.add(quote);
+                }
+            }
+            if (found.size() == needed) {
+                return found;
+            }
+        }
+        List<Object[]> range = quoteRepository.findIdRange();
+        if (range.isEmpty() || range.get(0)[0] == null) {
+            return found;
+        }
+        long min = ((Number) range.get(0)[0]).longValue();
+        long span = ((Number) range.get(0)[1]).longValue() - min + 1;
+
+        for (int round = 0; round < 3 && found.size() < needed; round++) {
+            int probes = (int) Math.min(span, (needed - found.size()) * 2L);
+            Set<Long> ids = new HashSet<>();
+            while (ids.size() < probes) {
+                ids.add(min + (long) (rnd.nextDouble() * span));
+            }
+            for (Quote quote : quoteRepository.findAllById(ids)) {
+                if (found.size() < needed && seen.add(identityKey(quote))) {
+                    found.add(quote);
+                }
+            }
+        }
+
+        PageRequest first = PageRequest.of(0, 1, Sort.by("id"));
+        for (int attempt = 0; attempt < needed * 2 && found.size() < needed; attempt++) {
+            long from = min + (long) (rnd.nextDouble() * span);
+            for (Quote quote : quoteRepository.findByIdGreaterThan(from - 1, first)) {
+                if (seen.add(identityKey(quote))) {
+                    found.add(quote);
+                }
+            }
+        }
+        Collections.shuffle(found, rnd);
+        return found;
+    }
+
+    private static String identityKey(Quote quote) {
+        return quote.getText() + '\u0000' + quote.getAuthor();
     }
 
     /**
      * Tries each provider in order. Only throws ExternalApiException
      * if every single one fails, including the local DB fallback.
+     * Provider results are also handed to the harvester so they end
+     * up in the local database.
      */
     private Quote fetchFromExternalChain() {
         try {
-            return fetchFromZenQuotes();
+            return harvested(fetchFromZenQuotes());
         } catch (RestClientException e) {
             logger.warn("ZenQuotes failed ({}), trying DummyJSON", e.getMessage());
         }
 
         try {
-            return fetchFromDummyJson();
+            return harvested(fetchFromDummyJson());
         } catch (RestClientException e) {
             logger.warn("DummyJSON failed ({}), trying Forismatic", e.getMessage());
         }
 
         try {
-            return fetchFromForismatic();
+            return harvested(fetchFromForismatic());
         } catch (RestClientException e) {
             logger.warn("Forismatic failed ({}), falling back to local database", e.getMessage());
         }
@@ -110,62 +410,91 @@ public class QuoteServiceImpl implements QuoteService {
         return fetchFromLocalDatabase();
     }
 
+    private Quote harvested(Quote quote) {
+        quoteHarvester.offer(quote);
+        return quote;
+    }
+
     private Quote fetchFromZenQuotes() {
-        @SuppressWarnings("unchecked")
-        Map<String, Object>[] response = restTemplate.getForObject(ZENQUOTES_API_URL, Map[].class);
+        String[] fields = fetchJson(ZENQUOTES_API_URL, parser -> {
+            if (parser.nextToken() != JsonToken.START_ARRAY || parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            return JsonFields.readStrings(parser, "q", "a");
+        });
 
-        if (response == null || response.length == 0) {
+        if (fields == null) {
             throw new RestClientException("Empty response from ZenQuotes");
         }
-        Map<String, Object> data = response[0];
-        String text = (String) data.get("q");
-        String author = (String) data.get("a");
+        String text = fields[0];
+        String author = fields[1];
         logger.info("Fetched from ZenQuotes: {} - {}", text, author);
         return new Quote(text, author);
     }
 
-    @SuppressWarnings("unchecked")
     private Quote fetchFromDummyJson() {
-        Map<String, Object> response = restTemplate.getForObject(DUMMYJSON_API_URL, Map.class);
+        String[] fields = fetchJson(DUMMYJSON_API_URL, parser -> parser.nextToken() == JsonToken.START_OBJECT
+                ? JsonFields.readStrings(parser, "quote", "author")
+                : null);
 
-        if (response == null || response.get("quote") == null) {
+        if (fields == null || fields[0] == null) {
             throw new RestClientException("Empty response from DummyJSON");
         }
-        String text = (String) response.get("quote");
-        String author = (String) response.get("author");
+        String text = fields[0];
+        String author = fields[1];
         logger.info("Fetched from DummyJSON: {} - {}", text, author);
         return new Quote(text, author);
     }
 
-    @SuppressWarnings("unchecked")
     private Quote fetchFromForismatic() {
         // Forismatic is a GET with method=getQuote; occasionally returns
         // JSONP-ish quirks, but format=json keeps it a clean object.
-        Map<String, Object> response = restTemplate.getForObject(FORISMATIC_API_URL, Map.class);
+        String[] fields = fetchJson(FORISMATIC_API_URL, parser -> parser.nextToken() == JsonToken.START_OBJECT
+                ? JsonFields.readStrings(parser, "quoteText", "quoteAuthor")
+                : null);
 
-        if (response == null || response.get("quoteText") == null) {
+        if (fields == null || fields[0] == null) {
             throw new RestClientException("Empty response from Forismatic");
         }
-        String text = ((String) response.get("quoteText")).trim();
-        String author = response.get("quoteAuthor") == null || ((String) response.get("quoteAuthor")).isBlank()
-                ? "Unknown"
-                : (String) response.get("quoteAuthor");
+        String text = fields[0].trim();
+        String author = fields[1] == null || fields[1].isBlank() ? "Unknown" : fields[1];
         logger.info("Fetched from Forismatic: {} - {}", text, author);
         return new Quote(text, author);
     }
 
+    /**
+     * GETs a provider URL and pull-parses the response stream with the
+     * given decoder, so only the fields we need are ever materialized.
+     * Malformed JSON surfaces as a RestClientException like any other
+     * provider failure.
+     */
+    private <T> T fetchJson(String url, JsonDecoder<T> decoder) {
+        return restTemplate.execute(url, HttpMethod.GET,
+                request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON)),
+                response -> {
+                    try (JsonParser parser = objectMapper.getFactory().createParser(response.getBody())) {
+                        return decoder.decode(parser);
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    private interface JsonDecoder<T> {
+        T decode(JsonParser parser) throws IOException;
+    }
+
     /**
      * Last resort: pull a random quote already sitting in your own
-     * Postgres DB. Requires the table to be seeded (see saveQuote /
-     * a data.sql seed script). Never depends on network at all.
+     * Postgres DB. Seeded by database-setup.sql and grown by the
+     * harvester. Never depends on network at all.
      */
     private Quote fetchFromLocalDatabase() {
-        List<Quote> all = quoteRepository.findAll();
-        if (all.isEmpty()) {
+        List<Quote> sample = sampleFromDatabase(1, new HashSet<>(), random);
+        if (sample.isEmpty()) {
             logger.error("All external providers failed and local database is empty");
             throw new ExternalApiException("All quote providers unavailable and no local fallback quotes exist");
         }
-        Quote fallback = all.get(random.nextInt(all.size()));
+        Quote fallback = sample.get(0);
         logger.info("Served from local database fallback: {} - {}", fallback.getText(), fallback.getAuthor());
         return fallback;
     }
@@ -181,23 +510,49 @@ public class QuoteServiceImpl implements QuoteService {
             throw new IllegalArgumentException("Quote author cannot be empty");
         }
 
-        return quoteRepository.save(quote);
+        // Saving with an existing id replaces that quote; listeners see it as delete + save.
+        // Copy it first, since save() merges the new values into the managed instance.
+        Replacement result = transactionTemplate.execute(status -> {
+            Quote replaced = quote.getId() == null ? null : quoteRepository.findById(quote.getId())
+                    .map(existing -> new Quote(existing.getId(), existing.getText(), existing.getAuthor()))
+                    .orElse(null);
+            Quote saved = quoteRepository.save(quote);
+            if (replaced != null) {
+                authorStats.quoteRemoved(replaced);
+            }
+            authorStats.quotesAdded(List.of(saved));
+            return new Replacement(replaced, saved);
+        });
+        if (result.replaced() != null) {
+            eventPublisher.publishEvent(new QuoteDeletedEvent(result.replaced()));
+        }
+        eventPublisher.publishEvent(new QuoteSavedEvent(result.saved()));
+        return result.saved();
+    }
+
+    /** A saved quote and the one it overwrote, if any. */
+    private record Replacement(Quote replaced, Quote saved) {
     }
 
     @Override
     public void deleteQuote(Long id) {
         logger.info("Deleting quote with ID: {}", id);
 
-        if (!quoteRepository.existsById(id)) {
-            logger.error("Quote not found with ID: {}", id);
-            throw new QuoteNotFoundException("Quote not found with ID: " + id);
-        }
-
-        quoteRepository.deleteById(id);
+        Quote existing = transactionTemplate.execute(status -> {
+            Quote found = quoteRepository.findById(id).orElseThrow(() -> {
+                logger.error("Quote not found with ID: {}", id);
+                return new QuoteNotFoundException("Quote not found with ID: " + id);
+            });
+            quoteRepository.delete(found);
+            authorStats.quoteRemoved(found);
+            return found;
+        });
+        eventPublisher.publishEvent(new QuoteDeletedEvent(existing));
         logger.info("Successfully deleted quote with ID: {}", id);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Quote getQuoteById(Long id) {
         logger.info("Fetching quote with ID: {}", id);
         return quoteRepository.findById(id)
@@ -0,0 +1,536 @@
+package com.example.quotes.service;
+
+import com.example.quotes.corpus.OffHeapQuoteCorpus;
+import com.example.quotes.corpus.QuoteJsonView;
+import com.example.quotes.dto.SimilarQuote;
+import com.example.quotes.entities.Quote;
+import com.example.quotes.event.QuoteDeletedEvent;
+import com.example.quotes.event.QuoteSavedEvent;
+import com.example.quotes.event.QuotesImportedEvent;
+import com.example.quotes.exception.QuoteNotFoundException;
+import com.example.quotes.exception.UpstreamBusyException;
+import com.example.quotes.repository.QuoteRepository;
+import com.example.quotes.repository.QuoteRescanner;
+import com.example.quotes.util.LongIntHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * In-process "more like this" index over quote text using MinHash LSH.
+ *
+ * Each quote is reduced to a 32-value MinHash signature of its content
+ * words (16 bits per value), split into 16 bands of 2 rows. Quotes whose
+ * signatures agree on any whole band land in the same bucket; candidates
+ * from the query's 16 buckets are ranked by how many of the 32 values they
+ * share, which estimates the Jaccard similarity of their word sets.
+ *
+ * Everything lives in primitive arrays indexed by slot: ids, signatures,
+ * and per-band bucket chains (head per bucket, next per slot and band).
+ * Quote text is not kept here; matches are resolved by id from the
+ * off-heap corpus, so a query makes no database calls. Only while the
+ * corpus is still loading (or disabled) are they read from the database.
+ * About 200 bytes per quote, so a million quotes take roughly 200 MB.
+ *
+ * The index is built on a background thread after startup, signatures are
+ * computed on the fork/join pool page by page, and saves and deletes keep
+ * it current through the quote events. Bulk imports, and cluster listener
+ * reconnects, trigger a rescan that also re-indexes edited quotes and
+ * drops deleted ones.
+ */
+@Component
+public class QuoteSimilarityIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuoteSimilarityIndex.class);
+
+    static final int NUM_HASHES = 32;
+    static final int BANDS = 16;
+    static final int ROWS = NUM_HASHES / BANDS;
+    static final int MAX_K = 50;
+
+    private static final int NONE = -1;
+    private static final long DEAD = Long.MIN_VALUE;
+    // Chain steps per band, so one crowded bucket cannot dominate a query
+    private static final int MAX_STEPS_PER_BAND = 512;
+    private static final int SIGNATURE_TASK_THRESHOLD = 256;
+
+    private static final long[] MULTIPLIERS = new long[NUM_HASHES];
+    private static final long[] INCREMENTS = new long[NUM_HASHES];
+    private static final long[] STOP_WORDS;
+
+    static {
+        long seed = 0x5DEECE66DL;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            MULTIPLIERS[i] = mix(seed += 0x9E3779B97F4A7C15L) | 1;
+            INCREMENTS[i] = mix(seed += 0x9E3779B97F4A7C15L);
+        }
+        String[] words = {
+                "the", "and", "for", "are", "but", "not", "you", "all", "any", "can", "her", "was", "one",
+                "our", "out", "has", "his", "how", "its", "who", "did", "yet", "she", "him", "they", "them",
+                "this", "that", "with", "from", "have", "what", "when", "your", "will", "there", "their",
+                "been", "were", "which", "would", "into", "than", "then", "only", "also", "more", "most",
+                "some", "such", "very", "just", "over", "because", "about", "these", "those"
+        };
+        long[] hashes = new long[words.length];
+        for (int i = 0; i < words.length; i++) {
+            hashes[i] = tokenHash(words[i], 0, words[i].length());
+        }
+        Arrays.sort(hashes);
+        STOP_WORDS = hashes;
+    }
+
+    private final QuoteRepository quoteRepository;
+    private final OffHeapQuoteCorpus quoteCorpus;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongIntHashMap slotById = new LongIntHashMap(1024);
+    private long[] ids = new long[0];
+    private short[] signatures = new short[0];
+    private int[] next = new int[0];
+    private int[] heads = new int[0];
+    private int bucketMask;
+    private int slots;
+    private int deadSlots;
+
+    private final QuoteRescanner builder;
+    private volatile boolean ready;
+
+    public QuoteSimilarityIndex(QuoteRepository quoteRepository, OffHeapQuoteCorpus quoteCorpus,
+                                @Value("${quotes.similar.build-page-size:10000}") int pageSize) {
+        this.quoteRepository = quoteRepository;
+        this.quoteCorpus = quoteCorpus;
+        this.builder = new QuoteRescanner("similarity-index-builder", quoteRepository, pageSize, lock.writeLock(),
+                this::indexPage, this::sweep, this::buildCompleted);
+        resize(1024);
+    }
+
+    /**
+     * Returns up to {@code k} quotes most similar to the given one, best
+     * first. Quotes with no indexable words have no neighbours.
+     */
+    public List<SimilarQuote> findSimilar(Long id, int k) {
+        if (k < 1 || k > MAX_K) {
+            throw new IllegalArgumentException("k must be between 1 and " + MAX_K);
+        }
+        if (!ready) {
+            throw new UpstreamBusyException("Similarity index is still building, please try again shortly", 5);
+        }
+        long[] matchIds = new long[k];
+        int[] matchScores = new int[k];
+        int found = NONE;
+        lock.readLock().lock();
+        try {
+            int slot = slotById.get(id, NONE);
+            if (slot != NONE) {
+                found = topK(slot, matchIds, matchScores);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        boolean corpusReady = quoteCorpus.isReady();
+        if (found == NONE) {
+            boolean exists = corpusReady ? quoteCorpus.find(id) != null : quoteRepository.existsById(id);
+            if (!exists) {
+                throw new QuoteNotFoundException("Quote not found with ID: " + id);
+            }
+            return List.of();
+        }
+
+        Map<Long, Quote> quotes = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (int i = 0; i < found; i++) {
+            QuoteJsonView view = corpusReady ? quoteCorpus.find(matchIds[i]) : null;
+            if (view != null) {
+                quotes.put(view.getId(), new Quote(view.getId(), view.getText(), view.getAuthor()));
+            } else {
+                missing.add(matchIds[i]);
+            }
+        }
+        // Everything before the corpus is loaded; afterwards only a quote saved or deleted mid-query
+        if (!missing.isEmpty()) {
+            for (Quote quote : quoteRepository.findAllById(missing)) {
+                quotes.put(quote.getId(), quote);
+            }
+        }
+        List<SimilarQuote> result = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            Quote quote = quotes.get(matchIds[i]);
+            if (quote != null) {
+                result.add(new SimilarQuote(quote.getId(), quote.getText(), quote.getAuthor(),
+                        (double) matchScores[i] / NUM_HASHES));
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener
+    public void onQuoteSaved(QuoteSavedEvent event) {
+        Quote quote = event.quote();
+        if (quote.getId() != null) {
+            put(quote.getId(), signature(quote.getText()));
+        }
+    }
+
+    @EventListener
+    public void onQuoteDeleted(QuoteDeletedEvent event) {
+        Long id = event.quote().getId();
+        if (id == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            builder.recordWrite(id);
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildInBackground() {
+        requestBuild();
+    }
+
+    /** Bulk imports skip the per-quote events; rescan the table to pick up the new rows. */
+    @EventListener
+    public void onQuotesImported(QuotesImportedEvent event) {
+        requestBuild();
+    }
+
+    private void requestBuild() {
+        builder.request();
+    }
+
+    /**
+     * Scans the quotes table in id order, indexing every quote whose
+     * signature differs from the indexed one, then drops ids that are gone
+     * from the table. A first build that fails stays not-ready: /similar
+     * keeps answering 503.
+     *
+     * @return whether the scan reached the end of the table
+     */
+    boolean build() {
+        return builder.scan();
+    }
+
+    private void indexPage(List<Quote> quotes) {
+        short[] pageSignatures = new short[quotes.size() * NUM_HASHES];
+        boolean[] indexable = new boolean[quotes.size()];
+        ForkJoinPool.commonPool().invoke(new SignatureTask(quotes, pageSignatures, indexable, 0, quotes.size()));
+
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < quotes.size(); i++) {
+                long id = quotes.get(i).getId();
+                if (builder.writtenDuringScan(id)) {
+                    continue;
+                }
+                int slot = slotById.get(id, NONE);
+                int offset = i * NUM_HASHES;
+                if (slot != NONE) {
+                    if (indexable[i] && Arrays.equals(signatures, slot * NUM_HASHES, (slot + 1) * NUM_HASHES,
+                            pageSignatures, offset, offset + NUM_HASHES)) {
+                        continue;
+                    }
+                    removeLocked(id);
+                }
+                if (indexable[i]) {
+                    putLocked(id, pageSignatures, offset);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Called with the write lock held once a scan has seen the whole table. */
+    private void sweep(LongPredicate inTable) {
+        int dropped = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if (ids[slot] != DEAD && !inTable.test(ids[slot])) {
+                // Only marks the slot dead, so the loop can carry on in place
+                removeLocked(ids[slot]);
+                dropped++;
+            }
+        }
+        if (dropped > 0) {
+            logger.info("Dropped {} quotes from the similarity index that are no longer in the table", dropped);
+        }
+    }
+
+    private void buildCompleted(long elapsedMs) {
+        ready = true;
+        logger.info("Similarity index built for {} quotes in {} ms", size(), elapsedMs);
+    }
+
+    void put(long id, short[] signature) {
+        lock.writeLock().lock();
+        try {
+            builder.recordWrite(id);
+            removeLocked(id);
+            if (signature != null) {
+                putLocked(id, signature, 0);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void putLocked(long id, short[] source, int offset) {
+        if (slots == ids.length) {
+            if (deadSlots > slots / 2) {
+                resize(ids.length);
+            } else {
+                resize(ids.length * 2);
+            }
+        }
+        int slot = slots++;
+        ids[slot] = id;
+        System.arraycopy(source, offset, signatures, slot * NUM_HASHES, NUM_HASHES);
+        link(slot);
+        slotById.put(id, slot);
+    }
+
+    private void removeLocked(long id) {
+        int slot = slotById.remove(id, NONE);
+        if (slot != NONE) {
+            // Chains are not unlinked; dead slots are skipped and dropped on the next resize
+            ids[slot] = DEAD;
+            deadSlots++;
+        }
+    }
+
+    private void link(int slot) {
+        int bucketCount = bucketMask + 1;
+        for (int band = 0; band < BANDS; band++) {
+            int head = band * bucketCount + (bandHash(signatures, slot, band) & bucketMask);
+            next[slot * BANDS + band] = heads[head];
+            heads[head] = slot;
+        }
+    }
+
+    /** Compacts live slots into arrays of the given capacity and rebuilds all chains. */
+    private void resize(int capacity) {
+        long[] oldIds = ids;
+        short[] oldSignatures = signatures;
+        int oldSlots = slots;
+
+        ids = new long[capacity];
+        signatures = new short[capacity * NUM_HASHES];
+        next = new int[capacity * BANDS];
+        bucketMask = Integer.highestOneBit(capacity) - 1;
+        heads = new int[(bucketMask + 1) * BANDS];
+        Arrays.fill(heads, NONE);
+        slots = 0;
+        deadSlots = 0;
+        slotById.clear();
+
+        for (int old = 0; old < oldSlots; old++) {
+            if (oldIds[old] != DEAD) {
+                int slot = slots++;
+                ids[slot] = oldIds[old];
+                System.arraycopy(oldSignatures, old * NUM_HASHES, signatures, slot * NUM_HASHES, NUM_HASHES);
+                link(slot);
+                slotById.put(ids[slot], slot);
+            }
+        }
+    }
+
+    /**
+     * Collects candidates that share a whole band with the query slot and
+     * keeps the best {@code matchIds.length} by signature agreement.
+     */
+    private int topK(int query, long[] matchIds, int[] matchScores) {
+        int[] candidates = new int[64];
+        int count = 0;
+        int bucketCount = bucketMask + 1;
+        for (int band = 0; band < BANDS; band++) {
+            int hash = bandHash(signatures, query, band);
+            int steps = 0;
+            for (int s = heads[band * bucketCount + (hash & bucketMask)];
+                 s != NONE && steps < MAX_STEPS_PER_BAND; s = next[s * BANDS + band]) {
+                steps++;
+                if (s != query && ids[s] != DEAD && bandEquals(query, s, band)) {
+                    if (count == candidates.length) {
+                        candidates = Arrays.copyOf(candidates, count * 2);
+                    }
+                    candidates[count++] = s;
+                }
+            }
+        }
+        Arrays.sort(candidates, 0, count);
+
+        int found = 0;
+        int k = matchIds.length;
+        for (int i = 0; i < count; i++) {
+            int slot = candidates[i];
+            if (i > 0 && candidates[i - 1] == slot) {
+                continue;
+            }
+            int score = agreement(query, slot);
+            if (found == k && score <= matchScores[k - 1]) {
+                continue;
+            }
+            // Insertion into the small sorted result arrays
+            int pos = found < k ? found++ : k - 1;
+            while (pos > 0 && matchScores[pos - 1] < score) {
+                matchScores[pos] = matchScores[pos - 1];
+                matchIds[pos] = matchIds[pos - 1];
+                pos--;
+            }
+            matchScores[pos] = score;
+            matchIds[pos] = ids[slot];
+        }
+        return found;
+    }
+
+    private boolean bandEquals(int a, int b, int band) {
+        int offsetA = a * NUM_HASHES + band * ROWS;
+        int offsetB = b * NUM_HASHES + band * ROWS;
+        for (int r = 0; r < ROWS; r++) {
+            if (signatures[offsetA + r] != signatures[offsetB + r]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int agreement(int a, int b) {
+        int offsetA = a * NUM_HASHES;
+        int offsetB = b * NUM_HASHES;
+        int equal = 0;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            if (signatures[offsetA + i] == signatures[offsetB + i]) {
+                equal++;
+            }
+        }
+        return equal;
+    }
+
+    private static int bandHash(short[] signatures, int slot, int band) {
+        int offset = slot * NUM_HASHES + band * ROWS;
+        int h = band;
+        for (int r = 0; r < ROWS; r++) {
+            h = h * 0x01000193 ^ (signatures[offset + r] & 0xFFFF);
+        }
+        return (int) mix(h);
+    }
+
+    /**
+     * MinHash signature over the lower-cased words of at least three
+     * letters or digits, skipping common stop words. Returns null when the
+     * text has no such words.
+     */
+    static short[] signature(String text) {
+        short[] signature = new short[NUM_HASHES];
+        return signature(text, signature, 0) ? signature : null;
+    }
+
+    private static boolean signature(String text, short[] out, int offset) {
+        if (text == null) {
+            return false;
+        }
+        int[] mins = new int[NUM_HASHES];
+        Arrays.fill(mins, Integer.MAX_VALUE);
+        boolean any = false;
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean wordChar = i < length && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start >= 3) {
+                    long token = tokenHash(text, start, i);
+                    if (Arrays.binarySearch(STOP_WORDS, token) < 0) {
+                        any = true;
+                        for (int h = 0; h < NUM_HASHES; h++) {
+                            int value = (int) ((token * MULTIPLIERS[h] + INCREMENTS[h]) >>> 48);
+                            if (value < mins[h]) {
+                                mins[h] = value;
+                            }
+                        }
+                    }
+                }
+                start = -1;
+            }
+        }
+        if (any) {
+            for (int h = 0; h < NUM_HASHES; h++) {
+                out[offset + h] = (short) mins[h];
+            }
+        }
+        return any;
+    }
+
+    private static long tokenHash(String text, int from, int to) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = from; i < to; i++) {
+            h ^= Character.toLowerCase(text.charAt(i));
+            h *= 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /** Computes the signatures of one page of quotes on the fork/join pool. */
+    private static final class SignatureTask extends RecursiveAction {
+        private final List<Quote> quotes;
+        private final short[] out;
+        private final boolean[] indexable;
+        private final int from;
+        private final int to;
+
+        private SignatureTask(List<Quote> quotes, short[] out, boolean[] indexable, int from, int to) {
+            this.quotes = quotes;
+            this.out = out;
+            this.indexable = indexable;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SIGNATURE_TASK_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    indexable[i] = signature(quotes.get(i).getText(), out, i * NUM_HASHES);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SignatureTask(quotes, out, indexable, from, mid),
+                    new SignatureTask(quotes, out, indexable, mid, to));
+        }
+    }
+}
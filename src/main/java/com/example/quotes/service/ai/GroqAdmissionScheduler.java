@@ -0,0 +1,257 @@
+package com.example.quotes.service.ai;
+
+import com.example.quotes.exception.ExternalApiException;
+import com.example.quotes.exception.UpstreamBusyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Admission control in front of Groq's requests-per-window and
+ * tokens-per-minute limits.
+ *
+ * The remaining budget is learned from the x-ratelimit-* headers on every
+ * Groq response and decremented locally for each admitted call. Callers
+ * wait in a bounded priority queue until the budget covers their estimated
+ * tokens; a caller whose expected wait already exceeds its deadline is
+ * rejected up front instead of spending an upstream call that would 429.
+ */
+@Component
+public class GroqAdmissionScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(GroqAdmissionScheduler.class);
+
+    // Groq's limit-requests header is per day and limit-tokens per minute
+    private static final long REQUESTS_WINDOW_NANOS = TimeUnit.DAYS.toNanos(1);
+    private static final long TOKENS_WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private static final Pattern DURATION_PART = Pattern.compile("(\\d+(?:\\.\\d+)?)(ms|h|m|s)");
+
+    public enum Priority {
+        INTERACTIVE,
+        STANDARD,
+        BACKGROUND
+    }
+
+    private final int queueCapacity;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final PriorityQueue<Waiter> queue = new PriorityQueue<>(
+            Comparator.comparing((Waiter w) -> w.priority).thenComparingLong(w -> w.sequence));
+    private long sequence;
+
+    // Budget as last reported by Groq, minus what was admitted since; -1 = unknown
+    private long remainingRequests = -1;
+    private long remainingTokens = -1;
+    private long limitRequests = -1;
+    private long limitTokens = -1;
+    private long requestsResetAt;
+    private long tokensResetAt;
+    private long blockedUntil;
+
+    public GroqAdmissionScheduler(@Value("${groq.admission.queue-capacity:64}") int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Blocks until the call may be sent, or throws if it cannot be admitted
+     * before {@code deadlineNanos} (a {@link System#nanoTime()} value).
+     */
+    public void acquire(long estimatedTokens, Priority priority, long deadlineNanos) {
+        lock.lock();
+        try {
+            if (queue.size() >= queueCapacity) {
+                throw new UpstreamBusyException("AI assistant is busy, please try again shortly", 1);
+            }
+            Waiter self = new Waiter(estimatedTokens, priority, sequence++);
+            queue.add(self);
+            try {
+                while (true) {
+                    long now = System.nanoTime();
+                    restoreExpiredBudgets(now);
+
+                    long expectedWait = expectedWait(self, now);
+                    if (expectedWait == 0 && queue.peek() == self) {
+                        consume(estimatedTokens);
+                        return;
+                    }
+                    if (now + expectedWait > deadlineNanos) {
+                        long retryAfter = TimeUnit.NANOSECONDS.toSeconds(expectedWait) + 1;
+                        logger.warn("Rejecting {} Groq call: expected wait {}s exceeds deadline", priority, retryAfter);
+                        throw new UpstreamBusyException("AI rate limit reached, please try again later", retryAfter);
+                    }
+                    long sleep = expectedWait > 0 ? expectedWait : deadlineNanos - now;
+                    changed.awaitNanos(Math.min(sleep, deadlineNanos - now));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ExternalApiException("Interrupted while waiting for Groq capacity");
+            } finally {
+                queue.remove(self);
+                changed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Updates the budget from a successful Groq response. */
+    public void onResponse(HttpHeaders headers) {
+        if (headers == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            limitRequests = longHeader(headers, "x-ratelimit-limit-requests", limitRequests);
+            limitTokens = longHeader(headers, "x-ratelimit-limit-tokens", limitTokens);
+            remainingRequests = longHeader(headers, "x-ratelimit-remaining-requests", remainingRequests);
+            remainingTokens = longHeader(headers, "x-ratelimit-remaining-tokens", remainingTokens);
+            requestsResetAt = resetAt(headers, "x-ratelimit-reset-requests", now, requestsResetAt);
+            tokensResetAt = resetAt(headers, "x-ratelimit-reset-tokens", now, tokensResetAt);
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Records a 429 from Groq: nothing is admitted until Retry-After passes. */
+    public void onRateLimited(HttpHeaders headers) {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            long retryAfterSeconds = headers == null ? 1 : Math.max(1, longHeader(headers, HttpHeaders.RETRY_AFTER, 1));
+            blockedUntil = now + TimeUnit.SECONDS.toNanos(retryAfterSeconds);
+            if (headers != null) {
+                onResponse(headers);
+            }
+            logger.warn("Groq rate limited us, pausing admissions for {}s", retryAfterSeconds);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rough prompt size: ~4 characters per token plus per-message framing,
+     * plus the completion tokens the call is expected to generate.
+     */
+    public static long estimateTokens(Iterable<String> contents, int expectedCompletionTokens) {
+        long chars = 0;
+        int messages = 0;
+        for (String content : contents) {
+            chars += content == null ? 0 : content.length();
+            messages++;
+        }
+        return chars / 4 + messages * 4L + expectedCompletionTokens;
+    }
+
+    private long expectedWait(Waiter self, long now) {
+        if (blockedUntil - now > 0) {
+            return blockedUntil - now;
+        }
+        // Demand of everyone served before us, plus our own
+        long requestsAhead = 0;
+        long tokensAhead = 0;
+        for (Waiter w : queue) {
+            if (w == self || queue.comparator().compare(w, self) < 0) {
+                requestsAhead++;
+                tokensAhead += w.tokens;
+            }
+        }
+        long wait = 0;
+        if (remainingRequests >= 0 && remainingRequests < requestsAhead) {
+            wait = Math.max(wait, Math.max(0, requestsResetAt - now));
+        }
+        if (remainingTokens >= 0 && remainingTokens < tokensAhead) {
+            wait = Math.max(wait, Math.max(0, tokensResetAt - now));
+        }
+        return wait;
+    }
+
+    /**
+     * Refills a budget whose reset time has passed and moves the reset one
+     * window ahead, so calls admitted before the next response's headers
+     * arrive are still counted against it.
+     */
+    private void restoreExpiredBudgets(long now) {
+        if (remainingRequests >= 0 && now - requestsResetAt >= 0) {
+            remainingRequests = limitRequests;
+            requestsResetAt = now + REQUESTS_WINDOW_NANOS;
+        }
+        if (remainingTokens >= 0 && now - tokensResetAt >= 0) {
+            remainingTokens = limitTokens;
+            tokensResetAt = now + TOKENS_WINDOW_NANOS;
+        }
+    }
+
+    private void consume(long tokens) {
+        if (remainingRequests > 0) {
+            remainingRequests--;
+        }
+        if (remainingTokens > 0) {
+            remainingTokens = Math.max(0, remainingTokens - tokens);
+        }
+    }
+
+    private static long longHeader(HttpHeaders headers, String name, long fallback) {
+        String value = headers.getFirst(name);
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private static long resetAt(HttpHeaders headers, String name, long now, long fallback) {
+        String value = headers.getFirst(name);
+        if (value == null) {
+            return fallback;
+        }
+        long nanos = parseDurationNanos(value.trim());
+        return nanos < 0 ? fallback : now + nanos;
+    }
+
+    /** Parses Groq's reset format, e.g. "7.66s", "2m59.56s", "1h2m3s", "120ms". */
+    static long parseDurationNanos(String value) {
+        Matcher matcher = DURATION_PART.matcher(value);
+        double seconds = 0;
+        boolean matched = false;
+        while (matcher.find()) {
+            matched = true;
+            double amount = Double.parseDouble(matcher.group(1));
+            switch (matcher.group(2)) {
+                case "h" -> seconds += amount * 3600;
+                case "m" -> seconds += amount * 60;
+                case "ms" -> seconds += amount / 1000;
+                default -> seconds += amount;
+            }
+        }
+        return matched ? (long) (seconds * 1_000_000_000L) : -1;
+    }
+
+    private static final class Waiter {
+        private final long tokens;
+        private final Priority priority;
+        private final long sequence;
+
+        private Waiter(long tokens, Priority priority, long sequence) {
+            this.tokens = tokens;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -3,7 +3,10 @@ package com.example.quotes.service.ai;
 import com.example.quotes.dto.ChatMessage;
 import com.example.quotes.entities.Quote;
 import com.example.quotes.exception.ExternalApiException;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.example.quotes.util.JsonFields;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,15 +14,17 @@ import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class GroqAiClient {
@@ -27,18 +32,32 @@ public class GroqAiClient {
     private static final Logger logger = LoggerFactory.getLogger(GroqAiClient.class);
 
     private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
     private final String apiKey;
     private final String apiUrl;
     private final String model;
+    private final GroqAdmissionScheduler admissionScheduler;
+    private final int expectedCompletionTokens;
+    private final long chatMaxWaitMs;
+    private final long explainMaxWaitMs;
 
-    public GroqAiClient(RestTemplate restTemplate,
+    public GroqAiClient(RestTemplate restTemplate, ObjectMapper objectMapper,
                         @Value("${groq.api.key:}") String apiKey,
                         @Value("${groq.api.url:https://api.groq.com/openai/v1/chat/completions}") String apiUrl,
-                        @Value("${groq.api.model:openai/gpt-oss-20b}") String model) {
+                        @Value("${groq.api.model:openai/gpt-oss-20b}") String model,
+                        GroqAdmissionScheduler admissionScheduler,
+                        @Value("${groq.admission.expected-completion-tokens:400}") int expectedCompletionTokens,
+                        @Value("${groq.admission.chat-max-wait-ms:5000}") long chatMaxWaitMs,
+                        @Value("${groq.admission.explain-max-wait-ms:10000}") long explainMaxWaitMs) {
         this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
         this.apiKey = apiKey;
         this.apiUrl = apiUrl;
         this.model = model;
+        this.admissionScheduler = admissionScheduler;
+        this.expectedCompletionTokens = expectedCompletionTokens;
+        this.chatMaxWaitMs = chatMaxWaitMs;
+        this.explainMaxWaitMs = explainMaxWaitMs;
     }
 
     public String generateExplanation(Quote quote) {
@@ -56,7 +75,7 @@ public class GroqAiClient {
                 Map.of("role", "user", "content", buildPrompt(quote))
         );
 
-        return callGroq(messages);
+        return callGroq(messages, GroqAdmissionScheduler.Priority.STANDARD, explainMaxWaitMs);
     }
 
     public String generateChatResponse(Quote quote, String question, List<ChatMessage> history) {
@@ -91,10 +110,17 @@ public class GroqAiClient {
         }
 
         messages.add(Map.of("role", "user", "content", question.trim()));
-        return callGroq(messages);
+        return callGroq(messages, GroqAdmissionScheduler.Priority.INTERACTIVE, chatMaxWaitMs);
     }
 
-    private String callGroq(List<Map<String, Object>> messages) {
+    private String callGroq(List<Map<String, Object>> messages, GroqAdmissionScheduler.Priority priority, long maxWaitMs) {
+        List<String> contents = new ArrayList<>(messages.size());
+        for (Map<String, Object> message : messages) {
+            contents.add((String) message.get("content"));
+        }
+        long estimatedTokens = GroqAdmissionScheduler.estimateTokens(contents, expectedCompletionTokens);
+        admissionScheduler.acquire(estimatedTokens, priority, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs));
+
         Map<String, Object> payload = new HashMap<>();
         payload.put("model", model);
         payload.put("temperature", 0.7);
@@ -102,34 +128,58 @@ public class GroqAiClient {
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
         headers.setBearerAuth(apiKey);
 
         HttpEntity<Map<String, Object>> entity = new HttpEntity<>(payload, headers);
 
         try {
-            ResponseEntity<JsonNode> response = restTemplate.exchange(apiUrl, HttpMethod.POST, entity, JsonNode.class);
-            JsonNode body = response.getBody();
-            if (body == null) {
-                throw new ExternalApiException("Groq API returned an empty response body.");
-            }
-
-            JsonNode choices = body.path("choices");
-            if (!choices.isArray() || choices.isEmpty()) {
-                throw new ExternalApiException("Groq API response did not include choices.");
-            }
-
-            JsonNode content = choices.get(0).path("message").path("content");
-            if (content.isMissingNode() || content.asText().trim().isEmpty()) {
+            String content = restTemplate.execute(apiUrl, HttpMethod.POST,
+                    restTemplate.httpEntityCallback(entity),
+                    response -> {
+                        admissionScheduler.onResponse(response.getHeaders());
+                        try (JsonParser parser = objectMapper.getFactory().createParser(response.getBody())) {
+                            return readContent(parser);
+                        }
+                    });
+
+            if (content == null || content.trim().isEmpty()) {
                 throw new ExternalApiException("Groq API response did not include content.");
             }
-
-            return content.asText().trim();
+            return content.trim();
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            admissionScheduler.onRateLimited(e.getResponseHeaders());
+            logger.error("Groq API rate limit hit: {}", e.getMessage());
+            throw new ExternalApiException("Failed to generate AI response: " + e.getMessage());
         } catch (RestClientException e) {
             logger.error("Error calling Groq API: {}", e.getMessage());
             throw new ExternalApiException("Failed to generate AI response: " + e.getMessage());
         }
     }
 
+    /**
+     * Pulls choices[0].message.content out of a chat completion without
+     * building a tree; usage stats and other fields are skipped unread.
+     * Public for JsonDecodeBenchmark.
+     */
+    public static String readContent(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new ExternalApiException("Groq API returned an empty response body.");
+        }
+        if (!JsonFields.seekField(parser, "choices")
+                || parser.currentToken() != JsonToken.START_ARRAY
+                || parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new ExternalApiException("Groq API response did not include choices.");
+        }
+        if (!JsonFields.seekField(parser, "message")
+                || parser.currentToken() != JsonToken.START_OBJECT
+                || !JsonFields.seekField(parser, "content")
+                || parser.currentToken() != JsonToken.VALUE_STRING) {
+            return null;
+        }
+        return parser.getText();
+    }
+
     private String buildPrompt(Quote quote) {
         String authorPart = quote.getAuthor() == null || quote.getAuthor().trim().isEmpty()
                 ? "" : " — " + quote.getAuthor().trim();
@@ -0,0 +1,437 @@
+package com.example.quotes.stream;
+
+import com.example.quotes.event.QuoteCacheRefreshedEvent;
+import com.example.quotes.event.QuoteDeletedEvent;
+import com.example.quotes.event.QuoteSavedEvent;
+import com.example.quotes.event.QuotesImportedEvent;
+import com.example.quotes.exception.UpstreamBusyException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Server-Sent Events feed of quote changes: {@code created} and
+ * {@code deleted} from saves and deletes, {@code refreshed} when the
+ * random-quote cache takes in a provider quote, and {@code imported} after
+ * a bulk import (whose rows are not announced one by one).
+ *
+ * Subscribers are async responses written with servlet non-blocking I/O:
+ * an idle subscriber holds a socket but no thread, and a write never waits
+ * on a slow client. Each event is encoded once into a ring buffer of the
+ * last {@code log-size} events. The publishing thread only appends to it
+ * and hands the wake-up of subscribers to the sender pool; each subscriber
+ * keeps the id of the next event it needs and pulls frames from the log as
+ * its connection can take them. A client more than {@code max-pending}
+ * events behind, or whose next event has already been overwritten, is
+ * disconnected (it can reconnect and resume).
+ *
+ * A client reconnecting with Last-Event-ID starts reading the log after
+ * that id, so it gets the events it missed; if they have already been
+ * overwritten (or the id is from before a restart) it gets a single
+ * {@code reset} event and should reload the full list.
+ */
+@Component
+public class QuoteChangeFeed implements SmartLifecycle, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuoteChangeFeed.class);
+
+    private static final String CREATED = "created";
+    private static final String DELETED = "deleted";
+    private static final String REFRESHED = "refreshed";
+    private static final String IMPORTED = "imported";
+    private static final String RESET = "reset";
+
+    private static final byte[] CONNECTED = ":connected\n\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEARTBEAT = ":heartbeat\n\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final ObjectMapper objectMapper;
+    private final int maxSubscribers;
+    private final int maxPending;
+    private final long timeoutMs;
+    private final ExecutorService senders;
+
+    // Ring buffer of encoded recent events, appended to under this and read
+    // without it. Ids start from the clock so ids from an earlier process
+    // never look current.
+    private final AtomicReferenceArray<Frame> log;
+    private long nextId = System.currentTimeMillis() * 1000;
+    private int logCount;
+    private volatile long latestId = nextId - 1;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean fanOutScheduled = new AtomicBoolean();
+    private final AtomicLong evicted = new AtomicLong();
+    private volatile boolean running;
+
+    public QuoteChangeFeed(ObjectMapper objectMapper,
+                           @Value("${quotes.stream.log-size:1024}") int logSize,
+                           @Value("${quotes.stream.max-subscribers:10000}") int maxSubscribers,
+                           @Value("${quotes.stream.max-pending:256}") int maxPending,
+                           @Value("${quotes.stream.timeout-ms:1800000}") long timeoutMs,
+                           @Value("${quotes.stream.sender-threads:2}") int senderThreads) {
+        this.objectMapper = objectMapper;
+        this.log = new AtomicReferenceArray<>(logSize);
+        this.maxSubscribers = maxSubscribers;
+        this.maxPending = maxPending;
+        this.timeoutMs = timeoutMs;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "quote-stream-sender-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Puts the request into async mode and registers it as a subscriber.
+     * With a Last-Event-ID the subscriber starts reading the log right after
+     * it, so the client sees every change exactly once.
+     */
+    public void subscribe(HttpServletRequest request, HttpServletResponse response, String lastEventId)
+            throws IOException {
+        if (!running) {
+            throw new UpstreamBusyException("Change feed is shutting down", 5);
+        }
+        if (subscribers.size() >= maxSubscribers) {
+            throw new UpstreamBusyException("Too many change feed subscribers, please try again later", 30);
+        }
+        response.setContentType(MediaType.TEXT_EVENT_STREAM_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        // Stops nginx from buffering the stream
+        response.setHeader("X-Accel-Buffering", "no");
+
+        AsyncContext async = request.startAsync();
+        async.setTimeout(timeoutMs);
+        Subscriber subscriber = new Subscriber(async, response.getOutputStream());
+        async.addListener(subscriber);
+
+        boolean resumed;
+        long resetId;
+        synchronized (this) {
+            subscriber.cursor = nextId;
+            resumed = lastEventId == null || lastEventId.isBlank() || resume(subscriber, lastEventId.trim());
+            resetId = nextId - 1;
+        }
+        // The first enqueue takes the subscriber's lock, which publishes the cursor to the sender threads
+        subscriber.enqueue(CONNECTED);
+        if (!resumed) {
+            // Carries the latest id, so the client resumes from here after reloading
+            subscriber.enqueue(encode(resetId, RESET, "{}"));
+        }
+        subscribers.add(subscriber);
+        // The container calls onWritePossible once the listener is set, which starts sending
+        subscriber.out.setWriteListener(subscriber);
+    }
+
+    /** Points the subscriber right after lastEventId; false if those events are no longer in the log. */
+    private boolean resume(Subscriber subscriber, String lastEventId) {
+        long lastId;
+        try {
+            lastId = Long.parseLong(lastEventId);
+        } catch (NumberFormatException e) {
+            lastId = -1;
+        }
+        long oldest = nextId - logCount;
+        if (lastId < oldest - 1 || lastId >= nextId) {
+            return false;
+        }
+        subscriber.cursor = lastId + 1;
+        return true;
+    }
+
+    @EventListener
+    public void onQuoteSaved(QuoteSavedEvent event) {
+        append(CREATED, event.quote());
+    }
+
+    @EventListener
+    public void onQuoteDeleted(QuoteDeletedEvent event) {
+        append(DELETED, event.quote());
+    }
+
+    @EventListener
+    public void onQuoteCacheRefreshed(QuoteCacheRefreshedEvent event) {
+        append(REFRESHED, event.quote());
+    }
+
+    @EventListener
+    public void onQuotesImported(QuotesImportedEvent event) {
+        append(IMPORTED, Map.of("inserted", event.inserted()));
+    }
+
+    private void append(String name, Object payload) {
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            logger.warn("Could not encode {} event for the change feed: {}", name, e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            long id = nextId++;
+            log.set(index(id), new Frame(id, encode(id, name, data)));
+            logCount = Math.min(logCount + 1, log.length());
+            latestId = id;
+        }
+        scheduleFanOut();
+    }
+
+    /** Wakes every subscriber from the sender pool; appends in a burst share one pass. */
+    private void scheduleFanOut() {
+        if (fanOutScheduled.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> {
+                    fanOutScheduled.set(false);
+                    for (Subscriber subscriber : subscribers) {
+                        subscriber.wake();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                fanOutScheduled.set(false); // shutting down; stop() closes the streams
+            }
+        }
+    }
+
+    /** Keeps idle connections open through proxies and detects clients that went away. */
+    @Scheduled(fixedRateString = "${quotes.stream.heartbeat-ms:15000}")
+    public void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.enqueue(HEARTBEAT);
+        }
+    }
+
+    // Compact JSON never contains a line break, so data fits on one line
+    private static byte[] encode(long id, String name, String data) {
+        return ("id:" + id + "\nevent:" + name + "\ndata:" + data + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private int index(long id) {
+        return (int) Math.floorMod(id, (long) log.length());
+    }
+
+    private record Frame(long id, byte[] bytes) {
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("quotes.stream.subscribers", subscribers, Set::size)
+                .description("Open change feed connections")
+                .register(registry);
+        FunctionCounter.builder("quotes.stream.evicted", evicted, AtomicLong::get)
+                .description("Change feed subscribers disconnected for falling behind")
+                .register(registry);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    /** Closes open streams before the web server's graceful shutdown waits on them. */
+    @Override
+    public void stop() {
+        running = false;
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+        senders.shutdown();
+        try {
+            senders.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * One connection and its position in the log, plus the frames that are
+     * not part of the log (connected, reset, heartbeats), which go first.
+     * Writes happen only while the output stream reports ready, from a
+     * sender thread or from the container's onWritePossible callback, under
+     * this monitor.
+     */
+    private final class Subscriber implements WriteListener, AsyncListener {
+        private final AsyncContext async;
+        private final ServletOutputStream out;
+        private final ArrayDeque<byte[]> pending = new ArrayDeque<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        // Id of the next log event to send
+        private long cursor;
+        private boolean listening;
+        private boolean closed;
+
+        private Subscriber(AsyncContext async, ServletOutputStream out) {
+            this.async = async;
+            this.out = out;
+        }
+
+        void enqueue(byte[] frame) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (pending.size() >= maxPending) {
+                    evict();
+                    return;
+                }
+                pending.add(frame);
+            }
+            wake();
+        }
+
+        /** Schedules a send on the sender pool unless one is already queued. */
+        void wake() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    senders.execute(() -> {
+                        scheduled.set(false);
+                        send();
+                    });
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false); // shutting down; stop() closes the stream
+                }
+            }
+        }
+
+        @Override
+        public void onWritePossible() {
+            synchronized (this) {
+                listening = true;
+            }
+            send();
+        }
+
+        private synchronized void send() {
+            if (closed) {
+                return;
+            }
+            if (latestId - cursor >= maxPending) {
+                evict();
+                return;
+            }
+            if (!listening) {
+                return;
+            }
+            try {
+                // isReady() == false arms onWritePossible, which picks up where this stops
+                while (out.isReady()) {
+                    byte[] frame = pending.poll();
+                    if (frame == null) {
+                        frame = nextLogFrame();
+                    }
+                    if (frame == null) {
+                        if (!closed) {
+                            out.flush();
+                        }
+                        return;
+                    }
+                    out.write(frame);
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+            }
+        }
+
+        /** @return the frame at the cursor, or null if it has not been appended yet */
+        private byte[] nextLogFrame() {
+            Frame frame = log.get(index(cursor));
+            if (frame == null || frame.id() < cursor) {
+                return null;
+            }
+            if (frame.id() > cursor) {
+                // Overwritten before this subscriber got to it
+                evict();
+                return null;
+            }
+            cursor++;
+            return frame.bytes();
+        }
+
+        private void evict() {
+            evicted.incrementAndGet();
+            logger.debug("Disconnecting change feed subscriber more than {} events behind", maxPending);
+            close();
+        }
+
+        synchronized void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pending.clear();
+            subscribers.remove(this);
+            try {
+                async.complete();
+            } catch (IllegalStateException e) {
+                // Already completed by the container
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            close();
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            synchronized (this) {
+                closed = true;
+                pending.clear();
+            }
+            subscribers.remove(this);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
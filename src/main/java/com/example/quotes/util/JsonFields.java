@@ -0,0 +1,65 @@
+package com.example.quotes.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Pull-parsing helpers for reading a few fields out of a JSON document
+ * without binding it to maps or a tree. Unwanted values are skipped by
+ * the parser, so their strings and containers are never materialized.
+ */
+public final class JsonFields {
+
+    private JsonFields() {
+    }
+
+    /**
+     * Reads the string values of the named fields from the object the
+     * parser is positioned on ({@code START_OBJECT}) and leaves it on the
+     * matching {@code END_OBJECT}. Absent or non-string fields come back null.
+     */
+    public static String[] readStrings(JsonParser parser, String... names) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Expected a JSON object but found " + parser.currentToken());
+        }
+        String[] values = new String[names.length];
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            int index = indexOf(names, parser.currentName());
+            JsonToken value = parser.nextToken();
+            if (index >= 0 && value == JsonToken.VALUE_STRING) {
+                values[index] = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Advances through the current object to the value of the named field.
+     * Returns false, with the parser on {@code END_OBJECT}, if the object
+     * has no such field.
+     */
+    public static boolean seekField(JsonParser parser, String name) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            boolean match = name.equals(parser.currentName());
+            parser.nextToken();
+            if (match) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    private static int indexOf(String[] names, String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.quotes.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing long to int map over two primitive arrays, for indexes
+ * keyed by quote id that would otherwise box every key and value.
+ * {@link Long#MIN_VALUE} marks free slots, so it can never be stored.
+ * Not thread-safe; callers guard it with their own lock.
+ */
+public class LongIntHashMap {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int resizeAt;
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    /** @return the value for the key, or {@code missing} if absent */
+    public int get(long key, int missing) {
+        if (key == EMPTY) {
+            return missing;
+        }
+        int mask = keys.length - 1;
+        for (int i = index(key, mask); ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) {
+                return values[i];
+            }
+            if (k == EMPTY) {
+                return missing;
+            }
+        }
+    }
+
+    public void put(long key, int value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Key " + key + " is reserved");
+        }
+        int mask = keys.length - 1;
+        for (int i = index(key, mask); ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) {
+                values[i] = value;
+                return;
+            }
+            if (k == EMPTY) {
+                keys[i] = key;
+                values[i] = value;
+                if (++size > resizeAt) {
+                    rehash(keys.length << 1);
+                }
+                return;
+            }
+        }
+    }
+
+    /** @return the removed value, or {@code missing} if absent */
+    public int remove(long key, int missing) {
+        if (key == EMPTY) {
+            return missing;
+        }
+        int mask = keys.length - 1;
+        for (int i = index(key, mask); ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == EMPTY) {
+                return missing;
+            }
+            if (k == key) {
+                int removed = values[i];
+                shiftBack(i, mask);
+                size--;
+                return removed;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    // Backward-shift deletion keeps probe chains intact without tombstones
+    private void shiftBack(int gap, int mask) {
+        int i = gap;
+        while (true) {
+            i = (i + 1) & mask;
+            long k = keys[i];
+            if (k == EMPTY) {
+                keys[gap] = EMPTY;
+                return;
+            }
+            int home = index(k, mask);
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = k;
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            long k = oldKeys[j];
+            if (k != EMPTY) {
+                int i = index(k, mask);
+                while (keys[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = k;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        resizeAt = capacity / 2;
+    }
+
+    private static int index(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
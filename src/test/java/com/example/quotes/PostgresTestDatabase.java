@@ -0,0 +1,78 @@
+package com.example.quotes;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Assumptions;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * PostgreSQL for tests of PostgreSQL-only features (cluster mode, COPY).
+ *
+ * Uses the database at QUOTES_TEST_POSTGRES_URL when that is set (a JDBC
+ * URL with user and password parameters; its tables are dropped and
+ * recreated), otherwise a container started once per test JVM. Tests
+ * calling {@link #assumeAvailable()} are skipped when neither is available.
+ */
+public final class PostgresTestDatabase {
+
+    private static final String URL_VARIABLE = "QUOTES_TEST_POSTGRES_URL";
+
+    private static PostgreSQLContainer<?> container;
+
+    private PostgresTestDatabase() {
+    }
+
+    public static void assumeAvailable() {
+        Assumptions.assumeTrue(System.getenv(URL_VARIABLE) != null || DockerClientFactory.instance().isDockerAvailable(),
+                "Needs Docker or " + URL_VARIABLE);
+    }
+
+    /** A small pool whose connections report the given application_name in pg_stat_activity. */
+    public static HikariDataSource newDataSource(String applicationName) {
+        HikariDataSource dataSource = new HikariDataSource();
+        String url = System.getenv(URL_VARIABLE);
+        if (url != null) {
+            dataSource.setJdbcUrl(url);
+        } else {
+            PostgreSQLContainer<?> postgres = container();
+            dataSource.setJdbcUrl(postgres.getJdbcUrl());
+            dataSource.setUsername(postgres.getUsername());
+            dataSource.setPassword(postgres.getPassword());
+        }
+        dataSource.setPoolName(applicationName);
+        dataSource.setMaximumPoolSize(4);
+        dataSource.addDataSourceProperty("ApplicationName", applicationName);
+        return dataSource;
+    }
+
+    /** Drops and recreates the schema, with its sample quotes, from database-setup.sql. */
+    public static void resetSchema() {
+        try (HikariDataSource dataSource = newDataSource("schema-reset");
+             Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            // The simple query protocol runs the whole script, dollar-quoted bodies included
+            statement.execute(Files.readString(Path.of("database-setup.sql")));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not reset the test schema", e);
+        }
+    }
+
+    private static synchronized PostgreSQLContainer<?> container() {
+        if (container == null) {
+            container = new PostgreSQLContainer<>("postgres:16-alpine");
+            // Stopped by the Testcontainers reaper when the JVM exits
+            container.start();
+        }
+        return container;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.quotes.bench;
+
+import com.example.quotes.service.ai.GroqAiClient;
+import com.example.quotes.util.JsonFields;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the streaming decoders for provider and Groq responses with
+ * the Map / JsonNode binding they replaced. Both sides read the same
+ * in-memory payloads from an InputStream, as they would from the HTTP
+ * response body.
+ *
+ * The Groq side calls {@link GroqAiClient#readContent} itself; the
+ * ZenQuotes side makes the same {@link JsonFields} calls as
+ * QuoteServiceImpl.fetchFromZenQuotes.
+ *
+ * Run after {@code mvn test-compile}, with {@code -prof gc} for bytes
+ * allocated per decode ({@code gc.alloc.rate.norm}):
+ * <pre>
+ * java -cp target/classes:target/test-classes:$(cat cp.txt) org.openjdk.jmh.Main JsonDecodeBenchmark -prof gc
+ * </pre>
+ * where cp.txt comes from {@code mvn dependency:build-classpath -Dmdep.outputFile=cp.txt}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonDecodeBenchmark {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final byte[] ZENQUOTES = ("[{\"q\":\"The only way to do great work is to love what you do.\","
+            + "\"a\":\"Steve Jobs\",\"c\":\"57\",\"h\":\"<blockquote>&ldquo;The only way to do great work is to "
+            + "love what you do.&rdquo; &mdash; <footer>Steve Jobs</footer></blockquote>\"}]")
+            .getBytes(StandardCharsets.UTF_8);
+
+    // A ~3.8 KB completion plus a reasoning field of the same size, which the streaming decoder skips
+    private static final byte[] GROQ = groqCompletion("This quote suggests that ".repeat(150));
+
+    @Benchmark
+    public String[] zenQuotesMap() throws IOException {
+        Map<?, ?>[] response = MAPPER.readValue(new ByteArrayInputStream(ZENQUOTES), Map[].class);
+        return new String[]{(String) response[0].get("q"), (String) response[0].get("a")};
+    }
+
+    @Benchmark
+    public String[] zenQuotesStreaming() throws IOException {
+        try (JsonParser parser = MAPPER.getFactory().createParser(new ByteArrayInputStream(ZENQUOTES))) {
+            if (parser.nextToken() != JsonToken.START_ARRAY || parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            return JsonFields.readStrings(parser, "q", "a");
+        }
+    }
+
+    @Benchmark
+    public String groqJsonNode() throws IOException {
+        JsonNode body = MAPPER.readTree(new ByteArrayInputStream(GROQ));
+        return body.path("choices").get(0).path("message").path("content").asText();
+    }
+
+    @Benchmark
+    public String groqStreaming() throws IOException {
+        try (JsonParser parser = MAPPER.getFactory().createParser(new ByteArrayInputStream(GROQ))) {
+            return GroqAiClient.readContent(parser);
+        }
+    }
+
+    private static byte[] groqCompletion(String content) {
+        String json = "{\"id\":\"chatcmpl-1\",\"object\":\"chat.completion\",\"created\":1760000000,"
+                + "\"model\":\"llama-3.3-70b-versatile\",\"choices\":[{\"index\":0,\"message\":{"
+                + "\"role\":\"assistant\",\"reasoning\":\"" + content + "\",\"content\":\"" + content + "\"},"
+                + "\"logprobs\":null,\"finish_reason\":\"stop\"}],\"usage\":{\"queue_time\":0.02,"
+                + "\"prompt_tokens\":120,\"prompt_time\":0.01,\"completion_tokens\":800,\"completion_time\":0.6,"
+                + "\"total_tokens\":920,\"total_time\":0.61},\"system_fingerprint\":\"fp_1\","
+                + "\"x_groq\":{\"id\":\"req_1\"}}";
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
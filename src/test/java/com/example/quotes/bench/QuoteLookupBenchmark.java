@@ -0,0 +1,103 @@
+package com.example.quotes.bench;
+
+import com.example.quotes.corpus.OffHeapQuoteCorpus;
+import com.example.quotes.entities.Quote;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares GET /api/quotes/{id} served from a {@code HashMap<Long, Quote>}
+ * plus Jackson with the off-heap corpus plus its view writer. Responses
+ * are written to a null stream, so only the in-process cost is sampled;
+ * heap held after GC and direct memory are printed once the layout is
+ * loaded. Each layout gets its own fork, so the heap numbers do not mix.
+ *
+ * Run after {@code mvn test-compile}, with {@code -prof gc} for bytes
+ * allocated per lookup:
+ * <pre>
+ * java -cp target/classes:target/test-classes:$(cat cp.txt) org.openjdk.jmh.Main QuoteLookupBenchmark -prof gc
+ * </pre>
+ * where cp.txt comes from {@code mvn dependency:build-classpath -Dmdep.outputFile=cp.txt}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class QuoteLookupBenchmark {
+
+    interface Lookup {
+        void write(long id, OutputStream out) throws IOException;
+    }
+
+    @Param({"heap", "offheap"})
+    public String layout;
+
+    @Param("2000000")
+    public int quotes;
+
+    private final OutputStream out = OutputStream.nullOutputStream();
+    private final SplittableRandom random = new SplittableRandom(42);
+    private Lookup lookup;
+
+    @Setup
+    public void setUp() throws InterruptedException {
+        long baseline = usedHeapAfterGc();
+        long started = System.nanoTime();
+        String memory;
+        if ("heap".equals(layout)) {
+            Map<Long, Quote> map = new HashMap<>();
+            for (long id = 1; id <= quotes; id++) {
+                map.put(id, SyntheticQuotes.quote(id));
+            }
+            // Like Spring's converter, leave the response stream open
+            ObjectMapper objectMapper = new ObjectMapper().configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            lookup = (id, out) -> objectMapper.writeValue(out, map.get(id));
+            memory = "";
+        } else {
+            OffHeapQuoteCorpus corpus = new OffHeapQuoteCorpus(SyntheticQuotes.repository(quotes), true, 10_000);
+            corpus.loadInBackground();
+            while (!corpus.isReady()) {
+                Thread.sleep(10);
+            }
+            lookup = (id, out) -> corpus.find(id).writeTo(out);
+            memory = String.format(", %d MB direct", corpus.offHeapBytes() >> 20);
+        }
+        long loadMs = (System.nanoTime() - started) / 1_000_000;
+        System.out.printf("%s: %d quotes loaded in %d ms, +%d MB heap after GC%s%n",
+                layout, quotes, loadMs, (usedHeapAfterGc() - baseline) >> 20, memory);
+    }
+
+    @Benchmark
+    public void lookupAndWrite() throws IOException {
+        lookup.write(1L + random.nextInt(quotes), out);
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.quotes.bench;
+
+import com.example.quotes.corpus.OffHeapQuoteCorpus;
+import com.example.quotes.dto.SimilarQuote;
+import com.example.quotes.repository.QuoteRepository;
+import com.example.quotes.service.QuoteSimilarityIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Builds the similarity index and the off-heap corpus over a synthetic
+ * table, then samples full {@link QuoteSimilarityIndex#findSimilar} calls,
+ * including resolving the matches to quotes. The repository is in-process
+ * ({@link SyntheticQuotes}) and counts id lookups; a query that would go
+ * to the database fails the run.
+ *
+ * Run after {@code mvn test-compile} (sample mode reports p50/p99):
+ * <pre>
+ * java -cp target/classes:target/test-classes:$(cat cp.txt) org.openjdk.jmh.Main QuoteSimilarityIndexBenchmark
+ * </pre>
+ * where cp.txt comes from {@code mvn dependency:build-classpath -Dmdep.outputFile=cp.txt}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class QuoteSimilarityIndexBenchmark {
+
+    @Param("1000000")
+    public int quotes;
+
+    private final LongAdder lookups = new LongAdder();
+    private final SplittableRandom random = new SplittableRandom(42);
+    private QuoteSimilarityIndex index;
+
+    @Setup
+    public void setUp() throws InterruptedException {
+        QuoteRepository repository = SyntheticQuotes.repository(quotes, lookups);
+        OffHeapQuoteCorpus corpus = new OffHeapQuoteCorpus(repository, true, 10_000);
+        corpus.loadInBackground();
+        index = new QuoteSimilarityIndex(repository, corpus, 10_000);
+        long started = System.nanoTime();
+        index.buildInBackground();
+        while (!index.isReady()) {
+            Thread.sleep(10);
+        }
+        long buildMs = (System.nanoTime() - started) / 1_000_000;
+        while (!corpus.isReady()) {
+            Thread.sleep(10);
+        }
+        System.out.printf("Built index for %d quotes in %d ms%n", index.size(), buildMs);
+        lookups.reset();
+    }
+
+    @TearDown
+    public void checkNoLookups() {
+        if (lookups.sum() != 0) {
+            throw new IllegalStateException(lookups.sum() + " repository id lookups during the queries");
+        }
+    }
+
+    @Benchmark
+    public List<SimilarQuote> findSimilar() {
+        return index.findSimilar(1L + random.nextInt(quotes), 10);
+    }
+}
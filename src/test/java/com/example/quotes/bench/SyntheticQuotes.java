@@ -0,0 +1,99 @@
+package com.example.quotes.bench;
+
+import com.example.quotes.entities.Quote;
+import com.example.quotes.repository.QuoteRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Deterministic fake corpus for the benchmarks: quote {@code id} (1..count)
+ * is generated from its id on demand, so a million-quote table costs no
+ * memory until a page of it is read.
+ */
+final class SyntheticQuotes {
+
+    private static final String[] WORDS = new String[4000];
+
+    static {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < WORDS.length; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 4 + random.nextInt(6);
+            for (int c = 0; c < length; c++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            WORDS[i] = word.toString();
+        }
+    }
+
+    private SyntheticQuotes() {
+    }
+
+    /** 6 to 20 words, skewed towards a common core vocabulary so neighbours exist. */
+    static Quote quote(long id) {
+        SplittableRandom random = new SplittableRandom(id * 0x9E3779B97F4A7C15L);
+        int words = 6 + random.nextInt(15);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            int rank = (int) (WORDS.length * Math.pow(random.nextDouble(), 3));
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[rank]);
+        }
+        text.append('.');
+        return new Quote(id, text.toString(), "Author " + (id % 50_000));
+    }
+
+    /**
+     * A QuoteRepository answering the keyset scan, id lookups and counts
+     * from {@link #quote(long)}; any other call throws.
+     */
+    static QuoteRepository repository(long count) {
+        return repository(count, new LongAdder());
+    }
+
+    /** As {@link #repository(long)}, counting the id lookups a real database would answer per query. */
+    static QuoteRepository repository(long count, LongAdder lookups) {
+        return (QuoteRepository) Proxy.newProxyInstance(SyntheticQuotes.class.getClassLoader(),
+                new Class<?>[]{QuoteRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findByIdGreaterThan" -> page((Long) args[0], (Pageable) args[1], count);
+                    case "findAllById" -> {
+                        lookups.increment();
+                        List<Quote> quotes = new ArrayList<>();
+                        for (Object id : (Iterable<?>) args[0]) {
+                            long value = (Long) id;
+                            if (value >= 1 && value <= count) {
+                                quotes.add(quote(value));
+                            }
+                        }
+                        yield quotes;
+                    }
+                    case "existsById" -> {
+                        lookups.increment();
+                        yield (Long) args[0] >= 1 && (Long) args[0] <= count;
+                    }
+                    case "count" -> count;
+                    case "toString" -> "SyntheticQuotes(" + count + ")";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static SliceImpl<Quote> page(long afterId, Pageable pageable, long count) {
+        long first = Math.max(1, afterId + 1);
+        long last = Math.min(count, first + pageable.getPageSize() - 1);
+        List<Quote> quotes = new ArrayList<>();
+        for (long id = first; id <= last; id++) {
+            quotes.add(quote(id));
+        }
+        return new SliceImpl<>(quotes, pageable, last < count);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.quotes.bench;
+
+import com.example.quotes.ratelimit.TokenBucketLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures {@link TokenBucketLimiter#tryAcquire(String)} over a pool of
+ * clients. Every benchmark thread shares the limiter and walks the
+ * clients from its own starting point.
+ *
+ * Run after {@code mvn test-compile}, once single-threaded and once with
+ * several threads ({@code -t}):
+ * <pre>
+ * java -cp target/classes:target/test-classes:$(cat cp.txt) org.openjdk.jmh.Main TokenBucketLimiterBenchmark -t 1
+ * java -cp target/classes:target/test-classes:$(cat cp.txt) org.openjdk.jmh.Main TokenBucketLimiterBenchmark -t max
+ * </pre>
+ * where cp.txt comes from {@code mvn dependency:build-classpath -Dmdep.outputFile=cp.txt}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenBucketLimiterBenchmark {
+
+    @Param("10000")
+    public int clients;
+
+    private TokenBucketLimiter limiter;
+    private String[] keys;
+    private final AtomicInteger threads = new AtomicInteger();
+
+    @Setup
+    public void setUp() {
+        // Same shape as the default standard limiter, with room for every client
+        limiter = new TokenBucketLimiter(60, 10, TimeUnit.SECONDS, clients * 2);
+        keys = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            keys[i] = "ip:10.0." + (i >> 8) + "." + (i & 0xff);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        @Setup
+        public void setUp(TokenBucketLimiterBenchmark benchmark) {
+            next = (int) ((long) benchmark.threads.getAndIncrement() * 7919 % benchmark.keys.length);
+        }
+    }
+
+    @Benchmark
+    public long tryAcquire(Cursor cursor) {
+        String key = keys[cursor.next];
+        if (++cursor.next == keys.length) {
+            cursor.next = 0;
+        }
+        return limiter.tryAcquire(key);
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.quotes.cluster;
+
+import com.example.quotes.PostgresTestDatabase;
+import com.example.quotes.corpus.OffHeapQuoteCorpus;
+import com.example.quotes.entities.Quote;
+import com.example.quotes.event.QuoteCacheRefreshedEvent;
+import com.example.quotes.event.QuoteDeletedEvent;
+import com.example.quotes.event.QuoteSavedEvent;
+import com.example.quotes.event.QuotesImportedEvent;
+import com.example.quotes.repository.QuoteRepository;
+import com.example.quotes.service.QuoteCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Two coordinators, each with its own pool, against one PostgreSQL
+ * database. Events a node republishes are captured instead of being
+ * dispatched, except that node "b" feeds imports to an off-heap corpus
+ * to show what a listener reconnect repairs.
+ */
+class ClusterCacheCoordinatorTest {
+
+    private static final long LOCK_KEY = 7301100099L;
+    private static final long TIMEOUT_MS = 15_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Node> nodes = new ArrayList<>();
+
+    @BeforeEach
+    void resetSchema() {
+        PostgresTestDatabase.assumeAvailable();
+        PostgresTestDatabase.resetSchema();
+    }
+
+    @AfterEach
+    void stopNodes() {
+        for (Node node : nodes) {
+            node.coordinator.stop();
+            node.dataSource.close();
+        }
+    }
+
+    @Test
+    void onlyOneNodeLeadsAndLeadershipMovesWhenTheLeaderStops() {
+        Node a = node("node-a");
+        Node b = node("node-b");
+
+        assertThat(a.coordinator.tryAcquireLeadership()).isTrue();
+        assertThat(b.coordinator.tryAcquireLeadership()).isFalse();
+        assertThat(a.coordinator.tryAcquireLeadership()).isTrue();
+
+        a.coordinator.stop();
+
+        assertThat(b.coordinator.tryAcquireLeadership()).isTrue();
+    }
+
+    @Test
+    void publishedCacheEntriesReachTheOtherNodesOnly() throws InterruptedException {
+        Node a = node("node-a");
+        Node b = node("node-b");
+        awaitListening(a);
+        awaitListening(b);
+
+        a.coordinator.publish(new Quote("Shared through the database", "Leader"));
+
+        await(() -> b.cache.size() == 1);
+        assertThat(b.cache.entries()[0].getQuote().getText()).isEqualTo("Shared through the database");
+        await(() -> b.events.stream().anyMatch(QuoteCacheRefreshedEvent.class::isInstance));
+        assertThat(a.events).noneMatch(QuoteCacheRefreshedEvent.class::isInstance);
+    }
+
+    @Test
+    void writesAreRepublishedOnTheOtherNodesOnly() throws InterruptedException {
+        Node a = node("node-a");
+        Node b = node("node-b");
+        awaitListening(a);
+        awaitListening(b);
+
+        a.coordinator.onQuoteSaved(new QuoteSavedEvent(new Quote(7L, "Saved on a", "Ann")));
+        a.coordinator.onQuoteDeleted(new QuoteDeletedEvent(new Quote(3L, "Deleted on a", "Bob")));
+        a.coordinator.onQuotesImported(new QuotesImportedEvent(12));
+
+        await(() -> b.events.size() == 3);
+        assertThat(b.events.get(0)).isInstanceOfSatisfying(QuoteSavedEvent.class, event ->
+                assertThat(event.quote()).extracting(Quote::getId, Quote::getText, Quote::getAuthor)
+                        .containsExactly(7L, "Saved on a", "Ann"));
+        assertThat(b.events.get(1)).isInstanceOfSatisfying(QuoteDeletedEvent.class, event ->
+                assertThat(event.quote().getId()).isEqualTo(3L));
+        assertThat(b.events.get(2)).isEqualTo(new QuotesImportedEvent(12));
+        assertThat(a.events).isEmpty();
+    }
+
+    @Test
+    void listenerReconnectReconcilesWritesMissedWhileDisconnected() throws InterruptedException {
+        node("node-a");
+        Node b = node("node-b");
+        awaitListening(b);
+        b.corpus.loadInBackground();
+        await(b.corpus::isReady);
+        assertThat(b.corpus.size()).isEqualTo(10);
+
+        // Written behind the cluster's back, as if the notifications had been lost
+        b.jdbcTemplate.update("DELETE FROM quotes WHERE id = 1");
+        b.jdbcTemplate.update("UPDATE quotes SET text = 'Edited while b was away' WHERE id = 2");
+        b.jdbcTemplate.update("INSERT INTO quote_cache (text, author) VALUES ('Fetched while b was away', 'Leader')");
+        int terminated = terminateListener(b);
+        assertThat(terminated).isEqualTo(1);
+
+        await(() -> b.events.contains(new QuotesImportedEvent(0)));
+        await(() -> b.corpus.find(1) == null && "Edited while b was away".equals(textOf(b.corpus, 2)));
+        assertThat(b.corpus.size()).isEqualTo(9);
+        assertThat(b.cache.entries()).extracting(entry -> entry.getQuote().getText(), entry -> entry.getQuote().getAuthor())
+                .containsExactly(tuple("Fetched while b was away", "Leader"));
+        awaitListening(b);
+    }
+
+    private Node node(String name) {
+        HikariDataSource dataSource = PostgresTestDatabase.newDataSource(name);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        QuoteCache cache = new QuoteCache(objectMapper);
+        OffHeapQuoteCorpus corpus = new OffHeapQuoteCorpus(quoteRepository(jdbcTemplate), true, 4);
+        List<Object> events = new CopyOnWriteArrayList<>();
+        ClusterCacheCoordinator coordinator = new ClusterCacheCoordinator(dataSource, jdbcTemplate,
+                transactionTemplate, cache, event -> {
+                    events.add(event);
+                    if (event instanceof QuotesImportedEvent imported) {
+                        corpus.onQuotesImported(imported);
+                    }
+                }, objectMapper, LOCK_KEY);
+        Node node = new Node(dataSource, jdbcTemplate, cache, corpus, events, coordinator, name);
+        nodes.add(node);
+        coordinator.start();
+        return node;
+    }
+
+    /** Waits until the node's listener connection has issued its LISTENs. */
+    private void awaitListening(Node node) throws InterruptedException {
+        await(() -> listenerPids(node) == 1);
+    }
+
+    private int listenerPids(Node node) {
+        return node.jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_stat_activity WHERE application_name = ? AND query = 'LISTEN quote_changes'",
+                Integer.class, node.name);
+    }
+
+    private int terminateListener(Node node) {
+        return node.jdbcTemplate.queryForList(
+                "SELECT pg_terminate_backend(pid) FROM pg_stat_activity "
+                        + "WHERE application_name = ? AND query = 'LISTEN quote_changes'", node.name).size();
+    }
+
+    private static String textOf(OffHeapQuoteCorpus corpus, long id) {
+        return corpus.find(id) == null ? null : corpus.find(id).getText();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MS);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime() - deadline).as("condition not met within %d ms", TIMEOUT_MS).isNegative();
+            Thread.sleep(20);
+        }
+    }
+
+    /** Just the keyset scan the corpus uses, straight over JDBC. */
+    private static QuoteRepository quoteRepository(JdbcTemplate jdbcTemplate) {
+        return (QuoteRepository) Proxy.newProxyInstance(ClusterCacheCoordinatorTest.class.getClassLoader(),
+                new Class<?>[]{QuoteRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findByIdGreaterThan" -> {
+                        Pageable pageable = (Pageable) args[1];
+                        List<Quote> quotes = jdbcTemplate.query(
+                                "SELECT id, text, author FROM quotes WHERE id > ? ORDER BY id LIMIT ?",
+                                (rs, rowNum) -> new Quote(rs.getLong("id"), rs.getString("text"), rs.getString("author")),
+                                args[0], pageable.getPageSize() + 1);
+                        boolean hasNext = quotes.size() > pageable.getPageSize();
+                        yield new SliceImpl<>(hasNext ? quotes.subList(0, pageable.getPageSize()) : quotes,
+                                pageable, hasNext);
+                    }
+                    case "toString" -> "JdbcQuoteRepository";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private record Node(HikariDataSource dataSource, JdbcTemplate jdbcTemplate, QuoteCache cache,
+                        OffHeapQuoteCorpus corpus, List<Object> events, ClusterCacheCoordinator coordinator,
+                        String name) {
+    }
+}
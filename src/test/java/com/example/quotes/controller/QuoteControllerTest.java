@@ -0,0 +1,179 @@
+package com.example.quotes.controller;
+
+import com.example.quotes.corpus.OffHeapQuoteCorpus;
+import com.example.quotes.entities.Quote;
+import com.example.quotes.exception.GlobalExceptionHandler;
+import com.example.quotes.ratelimit.AdaptiveConcurrencyLimiter;
+import com.example.quotes.repository.QuoteRepository;
+import com.example.quotes.service.AuthorStatsService;
+import com.example.quotes.service.PeriodicQuoteSelector;
+import com.example.quotes.service.QuoteCache;
+import com.example.quotes.service.QuoteHarvester;
+import com.example.quotes.service.QuoteServiceImpl;
+import com.example.quotes.service.QuoteSimilarityIndex;
+import com.example.quotes.service.ai.GroqAiClient;
+import com.example.quotes.stream.QuoteChangeFeed;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class QuoteControllerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final QuoteCache cache = new QuoteCache(objectMapper);
+    private final QuoteRepository quoteRepository = mock(QuoteRepository.class);
+    private final OffHeapQuoteCorpus quoteCorpus = mock(OffHeapQuoteCorpus.class);
+
+    // Lists over three quotes are streamed, two rows per page
+    @SuppressWarnings("unchecked")
+    private final QuoteServiceImpl quoteService = new QuoteServiceImpl(quoteRepository, mock(RestTemplate.class),
+            mock(GroqAiClient.class), objectMapper, cache, mock(ObjectProvider.class),
+            mock(QuoteHarvester.class), mock(ApplicationEventPublisher.class), quoteCorpus,
+            mock(TransactionTemplate.class), mock(AuthorStatsService.class), 3, 2);
+
+    private final MockMvc mockMvc = MockMvcBuilders
+            .standaloneSetup(new QuoteController(quoteService, mock(PeriodicQuoteSelector.class),
+                    mock(AuthorStatsService.class), mock(QuoteSimilarityIndex.class),
+                    mock(AdaptiveConcurrencyLimiter.class), quoteCorpus, mock(QuoteChangeFeed.class)))
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0", "-1", "51", "2000000000", "-2147483648"})
+    void outOfRangeCountIsRejectedBeforeAnythingIsAllocatedOrQueried(String count) throws Exception {
+        mockMvc.perform(get("/api/quotes/random").param("count", count))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("count must be between 1 and 50"));
+
+        verifyNoInteractions(quoteRepository, quoteCorpus);
+    }
+
+    @Test
+    void countInRangeReturnsThatManyDistinctQuotes() throws Exception {
+        cache.add(new Quote("first", "A"));
+        cache.add(new Quote("second", "B"));
+        cache.add(new Quote("third", "C"));
+
+        mockMvc.perform(get("/api/quotes/random").param("count", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void seedAndCountCannotBeCombined() throws Exception {
+        mockMvc.perform(get("/api/quotes/random").param("count", "2").param("seed", "7"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("seed and count cannot be combined"));
+    }
+
+    @Test
+    void smallListIsServedFromTheCachedBodyInEitherEncoding() throws Exception {
+        storeQuotes(1, 2, 3);
+
+        String plain = mockMvc.perform(get("/api/quotes"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(jsonPath("$.count").value(3))
+                .andExpect(jsonPath("$.quotes[*].id").value(contains(1, 2, 3)))
+                .andReturn().getResponse().getContentAsString();
+        byte[] gzipped = mockMvc.perform(get("/api/quotes").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(gunzip(gzipped)).isEqualTo(plain);
+        // Two pages read once for the snapshot, then reused
+        verify(quoteRepository, times(2)).findByIdGreaterThan(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void largeListIsStreamedPageByPageOnEveryRequest() throws Exception {
+        storeQuotes(1, 2, 3, 4, 5);
+
+        String plain = mockMvc.perform(get("/api/quotes"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(jsonPath("$.count").value(5))
+                .andExpect(jsonPath("$.quotes[*].id").value(contains(1, 2, 3, 4, 5)))
+                .andExpect(jsonPath("$.quotes[4].text").value("Quote 5"))
+                .andExpect(jsonPath("$.message").doesNotExist())
+                .andReturn().getResponse().getContentAsString();
+        byte[] gzipped = mockMvc.perform(get("/api/quotes").header(HttpHeaders.ACCEPT_ENCODING, "gzip, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(gunzip(gzipped)).isEqualTo(plain);
+        verify(quoteRepository, times(6)).findByIdGreaterThan(anyLong(), any(Pageable.class));
+        verify(quoteRepository, never()).findAll();
+    }
+
+    @Test
+    void emptyListSaysSo() throws Exception {
+        storeQuotes();
+
+        mockMvc.perform(get("/api/quotes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(0))
+                .andExpect(jsonPath("$.quotes").isEmpty())
+                .andExpect(jsonPath("$.message").value("No quotes found in database"));
+    }
+
+    /** Answers the id range and keyset pages as the database would for these ids. */
+    private void storeQuotes(long... ids) {
+        TreeMap<Long, Quote> rows = new TreeMap<>();
+        for (long id : ids) {
+            rows.put(id, new Quote(id, "Quote " + id, "Author " + id));
+        }
+        Object[] range = rows.isEmpty() ? new Object[]{null, null} : new Object[]{rows.firstKey(), rows.lastKey()};
+        when(quoteRepository.findIdRange()).thenReturn(List.<Object[]>of(range));
+        when(quoteRepository.findByIdGreaterThan(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            long after = invocation.getArgument(0);
+            Pageable pageable = invocation.getArgument(1);
+            List<Quote> next = rows.tailMap(after, false).values().stream()
+                    .limit(pageable.getPageSize() + 1L)
+                    .toList();
+            boolean hasNext = next.size() > pageable.getPageSize();
+            return new SliceImpl<>(hasNext ? next.subList(0, pageable.getPageSize()) : next, pageable, hasNext);
+        });
+    }
+
+    private static String gunzip(byte[] gzipped) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.quotes.corpus;
+
+import com.example.quotes.entities.Quote;
+import com.example.quotes.event.QuoteDeletedEvent;
+import com.example.quotes.event.QuoteSavedEvent;
+import com.example.quotes.repository.QuoteRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OffHeapQuoteCorpusTest {
+
+    private final QuoteRepository repository = mock(QuoteRepository.class);
+    private final OffHeapQuoteCorpus corpus = new OffHeapQuoteCorpus(repository, true, 2);
+
+    @Test
+    void arenaStartsANewChunkInsteadOfSplittingAnEntry() {
+        OffHeapQuoteCorpus.Arena arena = new OffHeapQuoteCorpus.Arena(4); // 16-byte chunks
+        long first = arena.append(bytes("0123456789"));
+        long second = arena.append(bytes("abcdefghij"));
+        long third = arena.append(bytes("xyz"));
+
+        assertThat(arena.reservedBytes()).isEqualTo(32);
+        assertThat(text(arena.slice(first, 10))).isEqualTo("0123456789");
+        assertThat(text(arena.slice(second, 10))).isEqualTo("abcdefghij");
+        assertThat(text(arena.slice(third, 3))).isEqualTo("xyz");
+        assertThat(new String(arena.copy(second, 10), StandardCharsets.UTF_8)).isEqualTo("abcdefghij");
+    }
+
+    @Test
+    void arenaSlicesAreReadOnlyAndRejectOversizedEntries() {
+        OffHeapQuoteCorpus.Arena arena = new OffHeapQuoteCorpus.Arena(4);
+        long ref = arena.append(bytes("abc"));
+
+        assertThat(arena.slice(ref, 3).isReadOnly()).isTrue();
+        assertThatThrownBy(() -> arena.append(new byte[17])).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void loadsEveryPageAndServesLookups() {
+        pages(new Quote(1L, "First quote", "Ann"), new Quote(2L, "Second quote", "Bob"),
+                new Quote(5L, "Ünïcödé “quote” ✓", "Ann"));
+
+        corpus.load();
+
+        assertThat(corpus.isReady()).isTrue();
+        assertThat(corpus.size()).isEqualTo(3);
+        QuoteJsonView view = corpus.find(5);
+        assertThat(view.getId()).isEqualTo(5);
+        assertThat(view.getText()).isEqualTo("Ünïcödé “quote” ✓");
+        assertThat(view.getAuthor()).isEqualTo("Ann");
+        assertThat(corpus.find(3)).isNull();
+        assertThat(corpus.find(Long.MIN_VALUE)).isNull();
+    }
+
+    @Test
+    void followsSavesAndDeletes() {
+        pages(new Quote(1L, "Original", "Ann"));
+        corpus.load();
+
+        corpus.onQuoteSaved(new QuoteSavedEvent(new Quote(1L, "Edited", "Ann")));
+        corpus.onQuoteSaved(new QuoteSavedEvent(new Quote(2L, "Added", "Cy")));
+        corpus.onQuoteDeleted(new QuoteDeletedEvent(new Quote(1L, "Edited", "Ann")));
+
+        assertThat(corpus.find(1)).isNull();
+        assertThat(corpus.find(2).getText()).isEqualTo("Added");
+        assertThat(corpus.size()).isEqualTo(1);
+        assertThat(corpus.randomQuote(new Random(1)).getId()).isEqualTo(2L);
+    }
+
+    @Test
+    void reclaimsDeletedTextOnceItOutweighsTheLiveText() {
+        pages();
+        corpus.load();
+        String text = "x".repeat(1000);
+        for (long id = 1; id <= 6000; id++) {
+            corpus.onQuoteSaved(new QuoteSavedEvent(new Quote(id, text + id, "Author " + (id % 10))));
+        }
+        long reservedBeforeDeletes = corpus.offHeapBytes();
+        for (long id = 1; id <= 6000; id++) {
+            if (id % 100 != 0) {
+                corpus.onQuoteDeleted(new QuoteDeletedEvent(new Quote(id, null, null)));
+            }
+        }
+
+        assertThat(corpus.offHeapBytes()).isLessThan(reservedBeforeDeletes);
+        assertThat(corpus.size()).isEqualTo(60);
+        for (long id = 100; id <= 6000; id += 100) {
+            assertThat(corpus.find(id).getText()).isEqualTo(text + id);
+            assertThat(corpus.find(id).getAuthor()).isEqualTo("Author " + (id % 10));
+        }
+        assertThat(corpus.find(99)).isNull();
+    }
+
+    @Test
+    void rescanReplacesEditedRowsAndDropsRowsGoneFromTheTable() {
+        pages(new Quote(1L, "Original", "Ann"), new Quote(2L, "Deleted elsewhere", "Bob"),
+                new Quote(3L, "Unchanged", "Cy"), new Quote(4L, "Re-attributed", "Dee"));
+        corpus.load();
+
+        // Edits and deletes made while this node was not listening
+        pages(new Quote(1L, "Edited", "Ann"), new Quote(3L, "Unchanged", "Cy"), new Quote(4L, "Re-attributed", "Eve"));
+        assertThat(corpus.load()).isTrue();
+
+        assertThat(corpus.size()).isEqualTo(3);
+        assertThat(corpus.find(1).getText()).isEqualTo("Edited");
+        assertThat(corpus.find(2)).isNull();
+        assertThat(corpus.find(3).getText()).isEqualTo("Unchanged");
+        assertThat(corpus.find(4).getAuthor()).isEqualTo("Eve");
+    }
+
+    @Test
+    void writesDuringARescanAreNeitherRevertedNorSwept() {
+        pages(new Quote(1L, "One", "Ann"), new Quote(2L, "Two", "Bob"), new Quote(3L, "Three", "Cy"));
+        corpus.load();
+
+        // The second page is read after these writes, but the first page was read before them
+        when(repository.findByIdGreaterThan(eq(2L), any())).thenAnswer(invocation -> {
+            corpus.onQuoteSaved(new QuoteSavedEvent(new Quote(1L, "One, edited during the scan", "Ann")));
+            corpus.onQuoteSaved(new QuoteSavedEvent(new Quote(9L, "Added during the scan", "Dee")));
+            corpus.onQuoteDeleted(new QuoteDeletedEvent(new Quote(3L, "Three", "Cy")));
+            return new SliceImpl<>(List.of(new Quote(3L, "Three", "Cy")), PageRequest.of(0, 2), false);
+        });
+        assertThat(corpus.load()).isTrue();
+
+        assertThat(corpus.find(1).getText()).isEqualTo("One, edited during the scan");
+        assertThat(corpus.find(2).getText()).isEqualTo("Two");
+        assertThat(corpus.find(3)).isNull();
+        assertThat(corpus.find(9).getText()).isEqualTo("Added during the scan");
+    }
+
+    @Test
+    void failedRescanDropsNothing() {
+        pages(new Quote(1L, "One", "Ann"), new Quote(2L, "Two", "Bob"), new Quote(3L, "Three", "Cy"));
+        corpus.load();
+
+        when(repository.findByIdGreaterThan(eq(2L), any())).thenThrow(new IllegalStateException("database is down"));
+        assertThat(corpus.load()).isFalse();
+
+        assertThat(corpus.size()).isEqualTo(3);
+        assertThat(corpus.find(3).getText()).isEqualTo("Three");
+    }
+
+    @Test
+    void failedLoadLeavesTheCorpusNotReady() {
+        when(repository.findByIdGreaterThan(any(), any())).thenThrow(new IllegalStateException("database is down"));
+
+        corpus.load();
+
+        assertThat(corpus.isReady()).isFalse();
+    }
+
+    /** Serves the quotes through the keyset scan, two per page as configured above. */
+    private void pages(Quote... quotes) {
+        List<Quote> all = List.of(quotes);
+        when(repository.findByIdGreaterThan(any(), any())).thenReturn(
+                new SliceImpl<>(List.of(), PageRequest.of(0, 2), false));
+        long after = Long.MIN_VALUE;
+        for (int from = 0; from < all.size(); from += 2) {
+            List<Quote> page = new ArrayList<>(all.subList(from, Math.min(all.size(), from + 2)));
+            when(repository.findByIdGreaterThan(eq(after), any())).thenReturn(
+                    new SliceImpl<>(page, PageRequest.of(0, 2), from + 2 < all.size()));
+            after = page.get(page.size() - 1).getId();
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(ByteBuffer buffer) {
+        return StandardCharsets.UTF_8.decode(buffer.duplicate()).toString();
+    }
+}
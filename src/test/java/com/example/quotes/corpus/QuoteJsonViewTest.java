@@ -0,0 +1,62 @@
+package com.example.quotes.corpus;
+
+import com.example.quotes.entities.Quote;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuoteJsonViewTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void writesTheSameJsonAsJacksonForAQuote() throws IOException {
+        assertSameAsJackson(new Quote(7L, "Stay hungry, stay foolish.", "Steve Jobs"), false, false);
+    }
+
+    @Test
+    void passesMultiByteUtf8ThroughUnescaped() throws IOException {
+        assertSameAsJackson(new Quote(8L, "Ünïcödé “quote” — ✓ 😀", "Zoë"), false, false);
+    }
+
+    @Test
+    void escapesQuotesBackslashesAndControlCharactersWhenFlagged() throws IOException {
+        assertSameAsJackson(new Quote(9L, "He said \"go\\stop\"\nthen\tleft", "The \"Author\""), true, true);
+    }
+
+    @Test
+    void decodesTextAndAuthor() {
+        QuoteJsonView view = view(new Quote(10L, "Ünïcödé", "Zoë"), false, false);
+
+        assertThat(view.getId()).isEqualTo(10L);
+        assertThat(view.getText()).isEqualTo("Ünïcödé");
+        assertThat(view.getAuthor()).isEqualTo("Zoë");
+        // Reading does not consume the shared buffers
+        assertThat(view.getText()).isEqualTo("Ünïcödé");
+    }
+
+    private void assertSameAsJackson(Quote quote, boolean textNeedsEscaping, boolean authorNeedsEscaping)
+            throws IOException {
+        QuoteJsonView view = view(quote, textNeedsEscaping, authorNeedsEscaping);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        view.writeTo(out);
+        // Written twice to check the view can be reused
+        ByteArrayOutputStream again = new ByteArrayOutputStream();
+        view.writeTo(again);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(objectMapper.writeValueAsString(quote));
+        assertThat(again.toByteArray()).isEqualTo(out.toByteArray());
+    }
+
+    private static QuoteJsonView view(Quote quote, boolean textNeedsEscaping, boolean authorNeedsEscaping) {
+        return new QuoteJsonView(quote.getId(),
+                ByteBuffer.wrap(quote.getText().getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer(), textNeedsEscaping,
+                ByteBuffer.wrap(quote.getAuthor().getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer(), authorNeedsEscaping);
+    }
+}
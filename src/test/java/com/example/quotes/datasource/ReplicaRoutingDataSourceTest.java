@@ -0,0 +1,140 @@
+package com.example.quotes.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Routing between two in-memory H2 databases, each holding a one-row
+ * table that names it, so every query reports which pool served it.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private final String primaryUrl = "jdbc:h2:mem:primary-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+    private final String replicaName = "replica-" + UUID.randomUUID();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private ReplicaRoutingDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void close() {
+        dataSource.close();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplicaAndEverythingElseToThePrimary() {
+        start(true, 0, 60_000);
+
+        assertThat(readOnly()).isEqualTo("replica");
+        assertThat(readWrite()).isEqualTo("primary");
+        assertThat(jdbcTemplate.queryForObject("SELECT name FROM node", String.class)).isEqualTo("primary");
+        assertThat(readOnly()).isEqualTo("replica");
+    }
+
+    @Test
+    void readsStayOnThePrimaryForTheStickyWindowAfterAWrite() throws InterruptedException {
+        start(true, 200, 60_000);
+
+        dataSource.onWrite();
+        assertThat(readOnly()).isEqualTo("primary");
+        assertThat(readOnly()).isEqualTo("primary");
+        assertThat(counter("quotes.datasource.replica.sticky-reads")).isEqualTo(2);
+
+        Thread.sleep(300);
+        assertThat(readOnly()).isEqualTo("replica");
+        assertThat(counter("quotes.datasource.replica.sticky-reads")).isEqualTo(2);
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhileTheReplicaIsDownAndReturnAfterTheRetryWindow() throws InterruptedException {
+        start(false, 0, 300);
+
+        assertThat(readOnly()).isEqualTo("primary");
+        assertThat(dataSource.isReplicaUp()).isFalse();
+        // Within the retry window the replica is not asked again
+        assertThat(readOnly()).isEqualTo("primary");
+        assertThat(counter("quotes.datasource.replica.fallback-reads")).isEqualTo(2);
+        assertThat(registry.get("quotes.datasource.replica.up").gauge().value()).isZero();
+
+        createDatabase(replicaUrl(), "replica");
+        Thread.sleep(400);
+        assertThat(dataSource.isReplicaUp()).isTrue();
+        assertThat(readOnly()).isEqualTo("replica");
+        assertThat(counter("quotes.datasource.replica.fallback-reads")).isEqualTo(2);
+    }
+
+    @Test
+    void connectionsForOtherCredentialsAreRefused() {
+        start(true, 0, 60_000);
+
+        assertThatThrownBy(() -> dataSource.getConnection("sa", ""))
+                .isInstanceOf(SQLFeatureNotSupportedException.class)
+                .hasMessage("Credentials are configured per pool");
+    }
+
+    private void start(boolean replicaUp, long stickyMs, long retryMs) {
+        createDatabase(primaryUrl, "primary");
+        if (replicaUp) {
+            createDatabase(replicaUrl(), "replica");
+        }
+        HikariDataSource primary = pool("primary", primaryUrl);
+        // IFEXISTS makes the replica unreachable until createDatabase has run
+        HikariDataSource replica = pool("replica", replicaUrl() + ";IFEXISTS=TRUE");
+        replica.setInitializationFailTimeout(-1);
+        replica.setConnectionTimeout(250);
+        dataSource = new ReplicaRoutingDataSource(primary, replica, stickyMs, retryMs);
+        dataSource.bindTo(registry);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    private String readOnly() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    private String readWrite() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.update("UPDATE node SET writes = writes + 1");
+            return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+        });
+    }
+
+    private double counter(String name) {
+        return registry.get(name).functionCounter().count();
+    }
+
+    private String replicaUrl() {
+        return "jdbc:h2:mem:" + replicaName + ";DB_CLOSE_DELAY=-1";
+    }
+
+    private static HikariDataSource pool(String name, String url) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setJdbcUrl(url);
+        pool.setUsername("sa");
+        pool.setPassword("");
+        pool.setMaximumPoolSize(2);
+        return pool;
+    }
+
+    private static void createDatabase(String url, String name) {
+        try (HikariDataSource setup = pool("setup", url)) {
+            JdbcTemplate setupTemplate = new JdbcTemplate(setup);
+            setupTemplate.execute("CREATE TABLE node (name VARCHAR(20), writes INT)");
+            setupTemplate.update("INSERT INTO node VALUES (?, 0)", name);
+        }
+    }
+}
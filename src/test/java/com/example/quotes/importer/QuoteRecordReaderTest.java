@@ -0,0 +1,150 @@
+package com.example.quotes.importer;
+
+import com.example.quotes.entities.Quote;
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QuoteRecordReaderTest {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Test
+    void csvSkipsTheHeaderRowAndBlankLines() throws IOException {
+        List<String[]> records = readAll(ImportFormat.CSV, "Text,Author\r\nfirst,A\r\n\r\nsecond,B\n\nthird,C");
+
+        assertThat(records).containsExactly(
+                new String[]{"first", "A"},
+                new String[]{"second", "B"},
+                new String[]{"third", "C"});
+    }
+
+    @Test
+    void csvKeepsAHeaderLikeRowAfterTheFirst() throws IOException {
+        List<String[]> records = readAll(ImportFormat.CSV, "first,A\ntext,author\n");
+
+        assertThat(records).containsExactly(
+                new String[]{"first", "A"},
+                new String[]{"text", "author"});
+    }
+
+    @Test
+    void csvQuotedFieldsHoldCommasQuotesAndLineBreaks() throws IOException {
+        List<String[]> records = readAll(ImportFormat.CSV,
+                "\"Well, well\",A\n"
+                        + "\"She said \"\"no\"\"\",B\n"
+                        + "\"two\r\nlines\",\"C\"\n"
+                        + "\"\",D\n");
+
+        assertThat(records).containsExactly(
+                new String[]{"Well, well", "A"},
+                new String[]{"She said \"no\"", "B"},
+                new String[]{"two\r\nlines", "C"},
+                new String[]{"", "D"});
+    }
+
+    @Test
+    void csvIgnoresExtraColumnsAndLeavesMissingOnesNull() throws IOException {
+        List<String[]> records = readAll(ImportFormat.CSV, "text,author,source\nfirst,A,book\nalone\n");
+
+        assertThat(records).containsExactly(
+                new String[]{"first", "A"},
+                new String[]{"alone", null});
+    }
+
+    @Test
+    void csvFieldsSpanningBufferRefills() throws IOException {
+        // Puts the longest allowed field across the reader's 64K buffer boundary
+        String filler = "filler,F\n".repeat(65_000 / 9);
+        String longText = "x".repeat(Quote.MAX_TEXT_LENGTH);
+        List<String[]> records = readAll(ImportFormat.CSV, filler + "\"" + longText + "\",A\nnext,B\n");
+
+        assertThat(records).hasSize(65_000 / 9 + 2);
+        assertThat(records.get(records.size() - 2)[0]).isEqualTo(longText);
+        assertThat(records.get(records.size() - 1)).containsExactly("next", "B");
+    }
+
+    @Test
+    void csvFieldLongerThanAnyQuoteNamesTheLineItStartsOn() {
+        assertThatThrownBy(() -> readAll(ImportFormat.CSV,
+                "first,A\n\"" + "x".repeat(Quote.MAX_TEXT_LENGTH + 1) + "\",B\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Field starting on line 2 is longer than " + Quote.MAX_TEXT_LENGTH + " characters");
+
+        // A quote that is never closed fails at the cap, not at the end of the input
+        assertThatThrownBy(() -> readAll(ImportFormat.CSV, "first,A\n\"opened\n" + "more,text\n".repeat(1_000_000)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Field starting on line 2 is longer");
+    }
+
+    @Test
+    void nulCharactersAreRejectedWithTheLine() {
+        assertThatThrownBy(() -> readAll(ImportFormat.CSV, "first,A\nsec\0ond,B\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("NUL character on line 2");
+        assertThatThrownBy(() -> readAll(ImportFormat.CSV, "first,A\n\"two\nlines\0\",B\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("NUL character on line 3");
+
+        assertThatThrownBy(() -> readAll(ImportFormat.JSONL,
+                "{\"text\": \"first\", \"author\": \"A\"}\n{\"text\": \"sec\\u0000ond\", \"author\": \"B\"}\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("NUL character on line 2");
+    }
+
+    @Test
+    void csvMalformedQuotingNamesTheLine() {
+        assertThatThrownBy(() -> readAll(ImportFormat.CSV, "first,A\n\"closed\"early,B\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("line 2");
+
+        assertThatThrownBy(() -> readAll(ImportFormat.CSV, "first,A\nsecond,B\n\"never\nclosed,C\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("starting on line 3");
+    }
+
+    @Test
+    void jsonLinesReadsTextAndAuthorAndSkipsOtherFields() throws IOException {
+        List<String[]> records = readAll(ImportFormat.JSONL,
+                "{\"text\": \"first\", \"author\": \"A\"}\n"
+                        + "{\"id\": 7, \"tags\": [\"x\", {\"y\": 1}], \"author\": \"B\", \"text\": \"second\"}\n"
+                        + "\n"
+                        + "{\"text\": \"no author\"}\n");
+
+        assertThat(records).containsExactly(
+                new String[]{"first", "A"},
+                new String[]{"second", "B"},
+                new String[]{"no author", null});
+    }
+
+    @Test
+    void jsonLinesInvalidInputNamesTheLine() {
+        assertThatThrownBy(() -> readAll(ImportFormat.JSONL, "{\"text\": \"first\", \"author\": \"A\"}\n{\"text\": oops}\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Invalid JSON on line 2");
+
+        assertThatThrownBy(() -> readAll(ImportFormat.JSONL, "{\"text\": \"first\", \"author\": \"A\"}\n[\"second\"]\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Expected a JSON object on line 2");
+    }
+
+    private static List<String[]> readAll(ImportFormat format, String input) throws IOException {
+        List<String[]> records = new ArrayList<>();
+        try (QuoteRecordReader reader = QuoteRecordReader.open(format,
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), JSON_FACTORY)) {
+            String[] record = new String[2];
+            while (reader.next(record)) {
+                records.add(record.clone());
+            }
+        }
+        return records;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.quotes.ratelimit;
+
+import com.example.quotes.exception.ExternalApiException;
+import com.example.quotes.exception.UpstreamBusyException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Calls are nested to hold several slots at once on one thread, and the
+ * clock only moves when the innermost call "runs", so every sample's
+ * latency and in-flight count are known exactly.
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private long now = 1_000_000_000L;
+
+    @Test
+    void limitGrowsWhileLatencyHoldsAtFullLoadUpToTheMaximum() {
+        AdaptiveConcurrencyLimiter limiter = limiter(4, 1, 20);
+
+        int previous = limiter.getLimit();
+        for (int round = 0; round < 5; round++) {
+            callNested(limiter, limiter.getLimit(), FAST);
+            assertThat(limiter.getLimit()).isGreaterThanOrEqualTo(previous);
+            previous = limiter.getLimit();
+        }
+        assertThat(limiter.getLimit()).isGreaterThan(4);
+
+        for (int round = 0; round < 20; round++) {
+            callNested(limiter, limiter.getLimit(), FAST);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    void limitBacksOffWhenLatencyRisesAboveTheBaseline() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20, 1, 20);
+        for (int round = 0; round < 5; round++) {
+            callNested(limiter, limiter.getLimit(), FAST);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(20);
+
+        callNested(limiter, limiter.getLimit(), SLOW);
+        int afterOneRound = limiter.getLimit();
+        callNested(limiter, limiter.getLimit(), SLOW);
+
+        assertThat(afterOneRound).isLessThan(20);
+        assertThat(limiter.getLimit()).isLessThan(afterOneRound);
+    }
+
+    @Test
+    void samplesFromAMostlyIdleLimiterLeaveTheLimitAlone() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10, 1, 20);
+
+        for (int i = 0; i < 50; i++) {
+            callNested(limiter, 1, FAST);
+            callNested(limiter, 4, i % 2 == 0 ? SLOW : FAST);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void callsOverTheLimitAreRejectedWithoutChangingIt() {
+        AdaptiveConcurrencyLimiter limiter = limiter(3, 1, 10);
+
+        assertThatThrownBy(() -> callNested(limiter, 4, FAST))
+                .isInstanceOf(UpstreamBusyException.class);
+
+        assertThat(limiter.getRejected()).isEqualTo(1);
+        assertThat(limiter.getInFlight()).isZero();
+        assertThat(limiter.getLimit()).isEqualTo(3);
+    }
+
+    @Test
+    void failedCallsShrinkTheLimitDownToTheMinimum() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10, 2, 20);
+        ExternalApiException timeout = new ExternalApiException("Read timed out");
+
+        // Fails instantly, which as a latency sample would have grown the limit
+        assertThatThrownBy(() -> limiter.execute(() -> {
+            throw timeout;
+        })).isSameAs(timeout);
+        assertThat(limiter.getLimit()).isEqualTo(9);
+        assertThat(limiter.getInFlight()).isZero();
+
+        for (int i = 0; i < 30; i++) {
+            assertThatThrownBy(() -> limiter.execute(() -> {
+                throw timeout;
+            })).isSameAs(timeout);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void callsTurnedAwayDownstreamAreNotSamplesOrDrops() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10, 1, 20);
+
+        for (int i = 0; i < 20; i++) {
+            assertThatThrownBy(() -> limiter.execute(() -> {
+                throw new UpstreamBusyException("AI rate limit reached, please try again later", 5);
+            })).isInstanceOf(UpstreamBusyException.class);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+        assertThat(limiter.getRejected()).isZero();
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(int initialLimit, int minLimit, int maxLimit) {
+        return new AdaptiveConcurrencyLimiter("test", initialLimit, minLimit, maxLimit, () -> now);
+    }
+
+    /** Holds {@code depth} slots; every call, inner and outer, observes the same latency. */
+    private String callNested(AdaptiveConcurrencyLimiter limiter, int depth, long latencyNanos) {
+        return limiter.execute(() -> {
+            if (depth > 1) {
+                return callNested(limiter, depth - 1, latencyNanos);
+            }
+            now += latencyNanos;
+            return "ok";
+        });
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.quotes.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenBucketLimiterTest {
+
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    // 3 requests of burst, then one every 100 ms
+    private final TokenBucketLimiter limiter = new TokenBucketLimiter(3, 10, TimeUnit.SECONDS, 1000);
+
+    @Test
+    void admitsTheBurstThenRejectsUntilATokenRefills() {
+        long now = 1_000_000_000L;
+        assertThat(limiter.tryAcquire("a", now)).isZero();
+        assertThat(limiter.tryAcquire("a", now)).isZero();
+        assertThat(limiter.tryAcquire("a", now)).isZero();
+
+        assertThat(limiter.tryAcquire("a", now)).isEqualTo(INTERVAL);
+        assertThat(limiter.tryAcquire("a", now + INTERVAL / 4)).isEqualTo(INTERVAL - INTERVAL / 4);
+
+        assertThat(limiter.tryAcquire("a", now + INTERVAL)).isZero();
+        assertThat(limiter.tryAcquire("a", now + INTERVAL)).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    void rejectedRequestsDoNotSpendTokens() {
+        long now = 1_000_000_000L;
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("a", now);
+        }
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire("a", now)).isPositive();
+        }
+        assertThat(limiter.tryAcquire("a", now + INTERVAL)).isZero();
+    }
+
+    @Test
+    void idleClientRefillsOnlyUpToCapacity() {
+        long now = 1_000_000_000L;
+        limiter.tryAcquire("a", now);
+
+        long later = now + TimeUnit.SECONDS.toNanos(60);
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("a", later)).isZero();
+        }
+        assertThat(limiter.tryAcquire("a", later)).isPositive();
+    }
+
+    @Test
+    void clientsHaveSeparateBuckets() {
+        long now = 1_000_000_000L;
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("a", now);
+        }
+        assertThat(limiter.tryAcquire("a", now)).isPositive();
+        assertThat(limiter.tryAcquire("b", now)).isZero();
+    }
+
+    @Test
+    void evictsIdleClientsBeyondMaxClients() {
+        TokenBucketLimiter small = new TokenBucketLimiter(1, 1, TimeUnit.SECONDS, 64);
+        for (int i = 0; i < 10_000; i++) {
+            small.tryAcquire("client-" + i, 0);
+        }
+        assertThat(small.size()).isLessThanOrEqualTo(64);
+    }
+
+    @Test
+    void rejectsNonPositiveLimits() {
+        assertThatThrownBy(() -> new TokenBucketLimiter(0, 1, TimeUnit.SECONDS, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenBucketLimiter(1, 0, TimeUnit.SECONDS, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
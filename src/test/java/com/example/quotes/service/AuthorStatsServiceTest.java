@@ -0,0 +1,117 @@
+package com.example.quotes.service;
+
+import com.example.quotes.dto.AuthorCount;
+import com.example.quotes.entities.Quote;
+import com.example.quotes.repository.AuthorStatsRepository;
+import com.example.quotes.repository.QuoteRepository;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Runs against the test database (H2 in PostgreSQL mode) without a
+ * test-wide transaction, so every call commits on its own as it does
+ * in the application.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(AuthorStatsService.class)
+class AuthorStatsServiceTest {
+
+    @Autowired
+    private AuthorStatsService authorStats;
+
+    @Autowired
+    private AuthorStatsRepository statsRepository;
+
+    @Autowired
+    private QuoteRepository quoteRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    @AfterEach
+    void clearTables() {
+        statsRepository.deleteAllInBatch();
+        quoteRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void addedQuotesCountOnePerQuoteAndCreateRowsForNewAuthors() {
+        authorStats.quotesAdded(List.of(quote("a1", "Ann"), quote("b1", "Bob"), quote("a2", "Ann")));
+        authorStats.quotesAdded(List.of(quote("a3", "Ann"), quote("c1", "Cy")));
+
+        assertThat(counts()).containsExactly(tuple("Ann", 3L), tuple("Bob", 1L), tuple("Cy", 1L));
+    }
+
+    @Test
+    void removedQuotesCountDownAndTheLastOneDropsTheAuthor() {
+        authorStats.quotesAdded(List.of(quote("a1", "Ann"), quote("a2", "Ann"), quote("b1", "Bob")));
+
+        authorStats.quoteRemoved(quote("a1", "Ann"));
+        authorStats.quoteRemoved(quote("b1", "Bob"));
+
+        assertThat(counts()).containsExactly(tuple("Ann", 1L));
+        assertThat(statsRepository.existsById("Bob")).isFalse();
+
+        // Removing a quote by an author with no row leaves nothing behind
+        authorStats.quoteRemoved(quote("z1", "Zed"));
+        assertThat(statsRepository.existsById("Zed")).isFalse();
+    }
+
+    @Test
+    void insertIfAbsentLeavesAnExistingCountAlone() {
+        authorStats.quotesAdded(List.of(quote("a1", "Ann"), quote("a2", "Ann")));
+
+        Integer existing = transactionTemplate.execute(status -> statsRepository.insertIfAbsent("Ann"));
+        Integer created = transactionTemplate.execute(status -> statsRepository.insertIfAbsent("Bob"));
+
+        assertThat(existing).isZero();
+        assertThat(created).isOne();
+        assertThat(counts()).containsExactly(tuple("Ann", 2L), tuple("Bob", 0L));
+    }
+
+    @Test
+    void rebuildAfterABulkLoadRecountsFromTheQuotesTable() {
+        // Stale counts, as left behind when an import bypasses the per-quote deltas
+        authorStats.quotesAdded(List.of(quote("gone", "Gone"), quote("a1", "Ann")));
+        quoteRepository.saveAll(List.of(quote("a1", "Ann"), quote("a2", "Ann"), quote("b1", "Bob"),
+                quote("c1", "Cy"), quote("c2", "Cy"), quote("c3", "Cy")));
+
+        authorStats.rebuild();
+
+        assertThat(counts()).containsExactly(tuple("Ann", 2L), tuple("Bob", 1L), tuple("Cy", 3L));
+        assertThat(authorStats.getAuthorCounts(0, 2).content())
+                .extracting(AuthorCount::author, AuthorCount::count)
+                .containsExactly(tuple("Cy", 3L), tuple("Ann", 2L));
+        assertThat(authorStats.getAuthorCounts(1, 2).content())
+                .extracting(AuthorCount::author)
+                .containsExactly("Bob");
+    }
+
+    private List<Tuple> counts() {
+        return statsRepository.findAll().stream()
+                .sorted((a, b) -> a.getAuthor().compareTo(b.getAuthor()))
+                .map(stats -> tuple(stats.getAuthor(), stats.getQuoteCount()))
+                .toList();
+    }
+
+    private static Quote quote(String text, String author) {
+        return new Quote(text, author);
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.quotes.service;
+
+import com.example.quotes.entities.Quote;
+import com.example.quotes.event.QuoteSavedEvent;
+import com.example.quotes.repository.QuoteBatchWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class QuoteHarvesterTest {
+
+    private static final long TIMEOUT_MS = 5_000;
+
+    private final QuoteBatchWriter batchWriter = mock(QuoteBatchWriter.class);
+    private final AuthorStatsService authorStats = mock(AuthorStatsService.class);
+    private final List<Object> events = new CopyOnWriteArrayList<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicLong ids = new AtomicLong();
+    /** Sizes of the batches handed to the writer; the harvester reuses its list, so Mockito's captures go stale. */
+    private final List<Integer> attempts = new CopyOnWriteArrayList<>();
+    private QuoteHarvester harvester;
+
+    @AfterEach
+    void stop() {
+        if (harvester != null) {
+            harvester.stop();
+        }
+    }
+
+    @Test
+    void batchThatKeepsFailingIsWrittenRowByRowAndRefusedRowsAreDiscarded() throws InterruptedException {
+        when(batchWriter.insertNew(anyList())).thenAnswer(invocation -> {
+            List<Quote> batch = invocation.getArgument(0);
+            attempts.add(batch.size());
+            if (batch.size() > 1 || batch.get(0).getText().equals("Refused")) {
+                throw new DataIntegrityViolationException("value too long for type character varying(255)");
+            }
+            return stored(batch);
+        });
+        harvester = harvester(3, 50);
+        harvester.offer(new Quote("First", "A"));
+        harvester.offer(new Quote("Refused", "B"));
+        harvester.offer(new Quote("Third", "C"));
+
+        harvester.start();
+
+        await(() -> savedTexts().size() == 2);
+        assertThat(savedTexts()).containsExactly("First", "Third");
+        // Three tries of the whole batch, then one per quote
+        assertThat(attempts).containsExactly(3, 3, 3, 1, 1, 1);
+        assertThat(registry.get("quotes.harvest.discarded").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void batchIsRetriedWholeAfterATransientFailure() throws InterruptedException {
+        when(batchWriter.insertNew(anyList())).thenAnswer(invocation -> {
+            List<Quote> batch = invocation.getArgument(0);
+            attempts.add(batch.size());
+            if (attempts.size() == 1) {
+                throw new TransientDataAccessResourceException("Connection refused");
+            }
+            return stored(batch);
+        });
+        harvester = harvester(3, 50);
+        harvester.offer(new Quote("First", "A"));
+        harvester.offer(new Quote("Second", "B"));
+
+        harvester.start();
+
+        await(() -> savedTexts().size() == 2);
+        assertThat(attempts).containsExactly(2, 2);
+        assertThat(registry.get("quotes.harvest.discarded").functionCounter().count()).isZero();
+    }
+
+    @Test
+    void stopFlushesWhatIsStillQueued() {
+        when(batchWriter.insertNew(anyList())).thenAnswer(invocation -> stored(invocation.getArgument(0)));
+        // Neither the batch size nor the flush interval will be reached before stopping
+        harvester = harvester(100, 60_000);
+        harvester.start();
+        for (int i = 1; i <= 5; i++) {
+            harvester.offer(new Quote("Quote " + i, "A"));
+        }
+
+        harvester.stop();
+
+        assertThat(savedTexts()).containsExactly("Quote 1", "Quote 2", "Quote 3", "Quote 4", "Quote 5");
+        verify(authorStats).quotesAdded(argThat(quotes -> quotes.size() == 5));
+        verify(batchWriter, times(1)).insertNew(anyList());
+    }
+
+    @Test
+    void quotesTheTableCannotHoldAreNotQueued() {
+        when(batchWriter.insertNew(anyList())).thenAnswer(invocation -> stored(invocation.getArgument(0)));
+        harvester = harvester(100, 60_000);
+        harvester.start();
+
+        harvester.offer(new Quote("  ", "A"));
+        harvester.offer(new Quote("x".repeat(Quote.MAX_TEXT_LENGTH + 1), "A"));
+        harvester.offer(new Quote("Fits", "a".repeat(Quote.MAX_AUTHOR_LENGTH + 1)));
+        harvester.offer(new Quote("  Trimmed  ", " A "));
+        harvester.stop();
+
+        assertThat(events).singleElement().isInstanceOfSatisfying(QuoteSavedEvent.class, event -> {
+            assertThat(event.quote().getText()).isEqualTo("Trimmed");
+            assertThat(event.quote().getAuthor()).isEqualTo("A");
+        });
+    }
+
+    private QuoteHarvester harvester(int batchSize, long flushIntervalMs) {
+        QuoteHarvester quoteHarvester = new QuoteHarvester(batchWriter, authorStats,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), events::add,
+                true, 100, batchSize, flushIntervalMs, 10, 10);
+        quoteHarvester.bindTo(registry);
+        return quoteHarvester;
+    }
+
+    private List<Quote> stored(List<Quote> batch) {
+        List<Quote> inserted = new ArrayList<>();
+        for (Quote quote : batch) {
+            inserted.add(new Quote(ids.incrementAndGet(), quote.getText(), quote.getAuthor()));
+        }
+        return inserted;
+    }
+
+    private List<String> savedTexts() {
+        return events.stream()
+                .map(event -> ((QuoteSavedEvent) event).quote().getText())
+                .toList();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MS);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime() - deadline).as("condition not met within %d ms", TIMEOUT_MS).isNegative();
+            Thread.sleep(10);
+        }
+    }
+}
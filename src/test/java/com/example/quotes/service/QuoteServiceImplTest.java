@@ -0,0 +1,72 @@
+package com.example.quotes.service;
+
+import com.example.quotes.corpus.OffHeapQuoteCorpus;
+import com.example.quotes.entities.Quote;
+import com.example.quotes.repository.QuoteRepository;
+import com.example.quotes.service.ai.GroqAiClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class QuoteServiceImplTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final QuoteRepository quoteRepository = mock(QuoteRepository.class);
+    private final OffHeapQuoteCorpus quoteCorpus = mock(OffHeapQuoteCorpus.class);
+
+    @SuppressWarnings("unchecked")
+    private final QuoteServiceImpl quoteService = new QuoteServiceImpl(quoteRepository, mock(RestTemplate.class),
+            mock(GroqAiClient.class), objectMapper, new QuoteCache(objectMapper), mock(ObjectProvider.class),
+            mock(QuoteHarvester.class), mock(ApplicationEventPublisher.class), quoteCorpus,
+            mock(TransactionTemplate.class), mock(AuthorStatsService.class), 10_000, 1000);
+
+    @Test
+    void sparseIdSpaceIsSampledWithKeysetLookupsInsteadOfOffsets() {
+        // One row per thousand ids, so random id probes all miss
+        when(quoteRepository.findIdRange()).thenReturn(List.<Object[]>of(new Object[]{1L, 1_000_000L}));
+        when(quoteRepository.findAllById(any())).thenReturn(List.of());
+        when(quoteRepository.findByIdGreaterThan(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            long after = invocation.getArgument(0);
+            long id = (after / 1000 + 1) * 1000;
+            Pageable pageable = invocation.getArgument(1);
+            return new SliceImpl<>(List.of(new Quote(id, "Quote " + id, "Author " + id)), pageable, true);
+        });
+
+        List<CachedQuote> quotes = quoteService.getRandomCachedQuotes(5);
+
+        assertThat(quotes).hasSize(5);
+        assertThat(quotes).extracting(quote -> quote.getQuote().getText()).doesNotHaveDuplicates();
+        verify(quoteRepository, atMost(10)).findByIdGreaterThan(anyLong(), any(Pageable.class));
+        verify(quoteRepository, never()).count();
+        verify(quoteRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void loadedCorpusServesTheSampleWithoutTheDatabase() {
+        when(quoteCorpus.isReady()).thenReturn(true);
+        long[] next = {0};
+        when(quoteCorpus.randomQuote(any())).thenAnswer(invocation -> {
+            long id = ++next[0];
+            return new Quote(id, "Quote " + id, "A");
+        });
+
+        assertThat(quoteService.getRandomCachedQuotes(3)).hasSize(3);
+        verify(quoteRepository, never()).findIdRange();
+    }
+}
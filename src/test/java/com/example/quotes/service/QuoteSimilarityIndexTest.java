@@ -0,0 +1,112 @@
+package com.example.quotes.service;
+
+import com.example.quotes.corpus.OffHeapQuoteCorpus;
+import com.example.quotes.dto.SimilarQuote;
+import com.example.quotes.entities.Quote;
+import com.example.quotes.exception.QuoteNotFoundException;
+import com.example.quotes.exception.UpstreamBusyException;
+import com.example.quotes.repository.QuoteRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class QuoteSimilarityIndexTest {
+
+    private final QuoteRepository repository = mock(QuoteRepository.class);
+    private final OffHeapQuoteCorpus corpus = new OffHeapQuoteCorpus(repository, true, 100);
+    private final QuoteSimilarityIndex index = new QuoteSimilarityIndex(repository, corpus, 100);
+
+    @Test
+    void failedBuildLeavesTheIndexNotReady() {
+        when(repository.findByIdGreaterThan(any(), any()))
+                .thenThrow(new DataAccessResourceFailureException("database is down"));
+
+        assertThat(index.build()).isFalse();
+        assertThat(index.isReady()).isFalse();
+        assertThatThrownBy(() -> index.findSimilar(1L, 5)).isInstanceOf(UpstreamBusyException.class);
+    }
+
+    @Test
+    void completedBuildAfterAFailureMakesTheIndexReady() {
+        Quote first = new Quote(1L, "courage grows stronger when tested by failure", "A");
+        Quote second = new Quote(2L, "courage grows stronger when tested by hardship", "B");
+        when(repository.findByIdGreaterThan(any(), any()))
+                .thenThrow(new DataAccessResourceFailureException("database is down"))
+                .thenReturn(new SliceImpl<>(List.of(first, second), PageRequest.of(0, 100), false));
+        when(repository.findAllById(anyIterable())).thenReturn(List.of(second));
+
+        assertThat(index.build()).isFalse();
+        assertThat(index.build()).isTrue();
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.findSimilar(1L, 5)).extracting("id").containsExactly(2L);
+    }
+
+    @Test
+    void rescanReindexesEditedQuotesAndDropsQuotesGoneFromTheTable() {
+        Quote first = new Quote(1L, "courage grows stronger when tested by failure", "A");
+        Quote second = new Quote(2L, "courage grows stronger when tested by hardship", "B");
+        Quote third = new Quote(3L, "courage grows stronger when tested by adversity", "C");
+        Quote unrelated = new Quote(4L, "patience brings quiet rewards over decades", "D");
+        when(repository.findByIdGreaterThan(any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(first, second, third, unrelated), PageRequest.of(0, 100), false));
+        assertThat(index.build()).isTrue();
+        when(repository.findAllById(anyIterable())).thenAnswer(invocation -> List.of(second, third));
+        assertThat(index.findSimilar(1L, 5)).extracting(SimilarQuote::id).containsExactlyInAnyOrder(2L, 3L);
+
+        // Quote 2 deleted and quote 4 rewritten while this node was not listening
+        Quote rewritten = new Quote(4L, "courage grows stronger when tested by defeat", "D");
+        when(repository.findByIdGreaterThan(any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(first, third, rewritten), PageRequest.of(0, 100), false));
+        assertThat(index.build()).isTrue();
+        when(repository.findAllById(anyIterable())).thenAnswer(invocation -> List.of(third, rewritten));
+
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.findSimilar(1L, 5)).extracting(SimilarQuote::id).containsExactlyInAnyOrder(3L, 4L);
+        assertThatThrownBy(() -> index.findSimilar(2L, 5)).isInstanceOf(QuoteNotFoundException.class);
+    }
+
+    @Test
+    void matchesAreResolvedFromTheCorpusWithoutDatabaseLookups() throws InterruptedException {
+        Quote first = new Quote(1L, "courage grows stronger when tested by failure", "A");
+        Quote second = new Quote(2L, "courage grows stronger when tested by hardship", "B");
+        Quote noWords = new Quote(3L, "to be", "C");
+        when(repository.findByIdGreaterThan(any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(first, second, noWords), PageRequest.of(0, 100), false));
+        corpus.loadInBackground();
+        awaitReady(corpus);
+        assertThat(index.build()).isTrue();
+
+        assertThat(index.findSimilar(1L, 5))
+                .extracting(SimilarQuote::id, SimilarQuote::text, SimilarQuote::author)
+                .containsExactly(tuple(2L, second.getText(), "B"));
+        assertThat(index.findSimilar(3L, 5)).isEmpty();
+        assertThatThrownBy(() -> index.findSimilar(4L, 5)).isInstanceOf(QuoteNotFoundException.class);
+
+        verify(repository, never()).findAllById(anyIterable());
+        verify(repository, never()).existsById(any());
+    }
+
+    private static void awaitReady(OffHeapQuoteCorpus corpus) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!corpus.isReady()) {
+            assertThat(System.nanoTime() - deadline).as("corpus load timed out").isNegative();
+            Thread.sleep(10);
+        }
+    }
+}
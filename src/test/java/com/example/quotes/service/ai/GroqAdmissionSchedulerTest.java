@@ -0,0 +1,112 @@
+package com.example.quotes.service.ai;
+
+import com.example.quotes.exception.UpstreamBusyException;
+import com.example.quotes.service.ai.GroqAdmissionScheduler.Priority;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GroqAdmissionSchedulerTest {
+
+    private final GroqAdmissionScheduler scheduler = new GroqAdmissionScheduler(8);
+
+    @Test
+    void parsesGroqResetDurations() {
+        assertThat(GroqAdmissionScheduler.parseDurationNanos("7.66s")).isEqualTo(7_660_000_000L);
+        assertThat(GroqAdmissionScheduler.parseDurationNanos("2m59.56s")).isEqualTo(179_560_000_000L);
+        assertThat(GroqAdmissionScheduler.parseDurationNanos("1h2m3s")).isEqualTo(3_723_000_000_000L);
+        assertThat(GroqAdmissionScheduler.parseDurationNanos("120ms")).isEqualTo(120_000_000L);
+        assertThat(GroqAdmissionScheduler.parseDurationNanos("soon")).isEqualTo(-1);
+    }
+
+    @Test
+    void admitsFreelyBeforeAnyHeadersArrive() {
+        for (int i = 0; i < 20; i++) {
+            scheduler.acquire(10_000, Priority.STANDARD, deadlineIn(10));
+        }
+    }
+
+    @Test
+    void rejectsUpFrontWhenRequestBudgetIsSpentUntilAfterTheDeadline() {
+        scheduler.onResponse(headers(14_400, 0, 6_000, 6_000, "10s", "1s"));
+
+        assertThatThrownBy(() -> scheduler.acquire(100, Priority.INTERACTIVE, deadlineIn(500)))
+                .isInstanceOf(UpstreamBusyException.class)
+                .satisfies(e -> assertThat(((UpstreamBusyException) e).getRetryAfterSeconds()).isBetween(9L, 11L));
+    }
+
+    @Test
+    void countsAdmittedCallsAgainstTheReportedTokenBudget() {
+        scheduler.onResponse(headers(14_400, 14_000, 6_000, 250, "1h", "30s"));
+
+        scheduler.acquire(100, Priority.STANDARD, deadlineIn(10));
+        scheduler.acquire(100, Priority.STANDARD, deadlineIn(10));
+        assertThatThrownBy(() -> scheduler.acquire(100, Priority.STANDARD, deadlineIn(10)))
+                .isInstanceOf(UpstreamBusyException.class);
+    }
+
+    @Test
+    void waitsForTheResetThenKeepsCountingAgainstTheRefilledBudget() {
+        scheduler.onResponse(headers(14_400, 14_000, 200, 0, "1h", "50ms"));
+
+        long start = System.nanoTime();
+        scheduler.acquire(100, Priority.STANDARD, deadlineIn(2_000));
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(40));
+
+        // Refilled to the 200-token limit for the next minute: one more fits, a third does not
+        scheduler.acquire(100, Priority.STANDARD, deadlineIn(10));
+        assertThatThrownBy(() -> scheduler.acquire(100, Priority.STANDARD, deadlineIn(10)))
+                .isInstanceOf(UpstreamBusyException.class);
+    }
+
+    @Test
+    void pausesAdmissionsForRetryAfterOnA429() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "3");
+        scheduler.onRateLimited(headers);
+
+        assertThatThrownBy(() -> scheduler.acquire(10, Priority.INTERACTIVE, deadlineIn(500)))
+                .isInstanceOf(UpstreamBusyException.class)
+                .satisfies(e -> assertThat(((UpstreamBusyException) e).getRetryAfterSeconds()).isBetween(2L, 4L));
+    }
+
+    @Test
+    void ignoresMalformedHeaders() {
+        scheduler.onResponse(headers(14_400, 14_000, 6_000, 6_000, "1h", "1m"));
+        HttpHeaders bad = new HttpHeaders();
+        bad.set("x-ratelimit-remaining-tokens", "lots");
+        bad.set("x-ratelimit-reset-tokens", "later");
+        scheduler.onResponse(bad);
+
+        scheduler.acquire(5_000, Priority.STANDARD, deadlineIn(10));
+        assertThatThrownBy(() -> scheduler.acquire(5_000, Priority.STANDARD, deadlineIn(10)))
+                .isInstanceOf(UpstreamBusyException.class);
+    }
+
+    @Test
+    void estimatesPromptAndCompletionTokens() {
+        assertThat(GroqAdmissionScheduler.estimateTokens(List.of("a".repeat(400), "b".repeat(40)), 400))
+                .isEqualTo(110 + 8 + 400);
+    }
+
+    private static long deadlineIn(long millis) {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    private static HttpHeaders headers(long limitRequests, long remainingRequests, long limitTokens,
+                                       long remainingTokens, String resetRequests, String resetTokens) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("x-ratelimit-limit-requests", Long.toString(limitRequests));
+        headers.set("x-ratelimit-remaining-requests", Long.toString(remainingRequests));
+        headers.set("x-ratelimit-limit-tokens", Long.toString(limitTokens));
+        headers.set("x-ratelimit-remaining-tokens", Long.toString(remainingTokens));
+        headers.set("x-ratelimit-reset-requests", resetRequests);
+        headers.set("x-ratelimit-reset-tokens", resetTokens);
+        return headers;
+    }
+}
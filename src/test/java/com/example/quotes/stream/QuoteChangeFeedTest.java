@@ -0,0 +1,265 @@
+package com.example.quotes.stream;
+
+import com.example.quotes.entities.Quote;
+import com.example.quotes.event.QuoteDeletedEvent;
+import com.example.quotes.event.QuoteSavedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Subscribers write to an in-memory stream that, like a container's,
+ * accepts a limited number of writes before isReady() turns false, and
+ * calls onWritePossible again once it is released.
+ */
+class QuoteChangeFeedTest {
+
+    private static final Pattern EVENT = Pattern.compile("id:(\\d+)\nevent:(\\w+)\ndata:(.*)\n\n");
+    private static final long TIMEOUT_MS = 5_000;
+
+    private SimpleMeterRegistry registry;
+    private QuoteChangeFeed feed = feed(1024, 256);
+
+    @AfterEach
+    void stop() {
+        feed.stop();
+    }
+
+    @Test
+    void subscribersReceiveEveryChangeInOrder() throws Exception {
+        Client client = subscribe(null);
+
+        feed.onQuoteSaved(new QuoteSavedEvent(new Quote(1L, "First", "A")));
+        feed.onQuoteDeleted(new QuoteDeletedEvent(new Quote(1L, "First", "A")));
+
+        await(() -> client.events().size() == 2);
+        assertThat(client.output()).startsWith(":connected\n\n");
+        assertThat(client.events()).extracting(event -> event[1]).containsExactly("created", "deleted");
+        assertThat(client.events().get(0)[2]).contains("\"text\":\"First\"");
+        assertThat(Long.parseLong(client.events().get(1)[0]))
+                .isEqualTo(Long.parseLong(client.events().get(0)[0]) + 1);
+    }
+
+    @Test
+    void lastEventIdResumesRightAfterThatEvent() throws Exception {
+        Client first = subscribe(null);
+        for (int i = 1; i <= 3; i++) {
+            feed.onQuoteSaved(new QuoteSavedEvent(new Quote((long) i, "Quote " + i, "A")));
+        }
+        await(() -> first.events().size() == 3);
+        String firstId = first.events().get(0)[0];
+
+        Client resumed = subscribe(firstId);
+
+        await(() -> resumed.events().size() == 2);
+        assertThat(resumed.events()).extracting(event -> event[0])
+                .containsExactly(first.events().get(1)[0], first.events().get(2)[0]);
+        assertThat(resumed.output()).doesNotContain("event:reset");
+    }
+
+    @Test
+    void cursorThatFellOutOfTheLogGetsAResetCarryingTheLatestId() throws Exception {
+        feed.stop();
+        feed = feed(4, 256);
+        Client first = subscribe(null);
+        // One at a time, so this subscriber is never overtaken by the 4-slot log
+        for (int i = 1; i <= 6; i++) {
+            feed.onQuoteSaved(new QuoteSavedEvent(new Quote((long) i, "Quote " + i, "A")));
+            int received = i;
+            await(() -> first.events().size() == received);
+        }
+        String latestId = first.events().get(5)[0];
+
+        Client overwritten = subscribe(first.events().get(0)[0]);
+        Client fromAnotherProcess = subscribe("1");
+
+        for (Client client : List.of(overwritten, fromAnotherProcess)) {
+            await(() -> client.events().size() == 1);
+            assertThat(client.events().get(0)).containsExactly(latestId, "reset", "{}");
+        }
+
+        // After the reset the client is caught up and follows new events
+        feed.onQuoteSaved(new QuoteSavedEvent(new Quote(7L, "Quote 7", "A")));
+        await(() -> overwritten.events().size() == 2);
+        assertThat(overwritten.events().get(1)[1]).isEqualTo("created");
+    }
+
+    @Test
+    void subscriberTooFarBehindIsDisconnected() throws Exception {
+        feed.stop();
+        feed = feed(1024, 4);
+        Client stalled = subscribe(null, 1);
+        Client keepingUp = subscribe(null);
+
+        // One at a time, so only the stalled subscriber falls behind; the fifth puts it max-pending behind
+        for (int i = 1; i <= 5; i++) {
+            feed.onQuoteSaved(new QuoteSavedEvent(new Quote((long) i, "Quote " + i, "A")));
+            int received = i;
+            await(() -> keepingUp.events().size() == received);
+        }
+
+        await(() -> !stalled.request.isAsyncStarted());
+        assertThat(registry.get("quotes.stream.evicted").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("quotes.stream.subscribers").gauge().value()).isEqualTo(1);
+        assertThat(keepingUp.request.isAsyncStarted()).isTrue();
+    }
+
+    @Test
+    void heartbeatsReachEverySubscriber() throws Exception {
+        Client a = subscribe(null);
+        Client b = subscribe(null);
+
+        feed.sendHeartbeats();
+
+        await(() -> a.output().endsWith(":heartbeat\n\n") && b.output().endsWith(":heartbeat\n\n"));
+    }
+
+    @Test
+    void writesStopWhileTheStreamIsNotReadyAndResumeOnWritePossible() throws Exception {
+        // Room for the connected comment and one event
+        Client client = subscribe(null, 2);
+        for (int i = 1; i <= 3; i++) {
+            feed.onQuoteSaved(new QuoteSavedEvent(new Quote((long) i, "Quote " + i, "A")));
+        }
+        await(() -> client.events().size() == 1);
+        Thread.sleep(100);
+        assertThat(client.events()).hasSize(1);
+
+        client.out.release();
+
+        await(() -> client.events().size() == 3);
+        assertThat(client.events()).extracting(event -> event[2])
+                .extracting(data -> data.replaceAll(".*\"text\":\"([^\"]+)\".*", "$1"))
+                .containsExactly("Quote 1", "Quote 2", "Quote 3");
+        assertThat(client.request.isAsyncStarted()).isTrue();
+    }
+
+    private QuoteChangeFeed feed(int logSize, int maxPending) {
+        QuoteChangeFeed changeFeed = new QuoteChangeFeed(new ObjectMapper(), logSize, 100, maxPending, 60_000, 1);
+        registry = new SimpleMeterRegistry();
+        changeFeed.bindTo(registry);
+        changeFeed.start();
+        return changeFeed;
+    }
+
+    private Client subscribe(String lastEventId) throws IOException {
+        return subscribe(lastEventId, Integer.MAX_VALUE);
+    }
+
+    private Client subscribe(String lastEventId, int writes) throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/quotes/stream");
+        request.setAsyncSupported(true);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        ClientOutputStream out = new ClientOutputStream(writes);
+        when(response.getOutputStream()).thenReturn(out);
+        feed.subscribe(request, response, lastEventId);
+        return new Client(request, out);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MS);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime() - deadline).as("condition not met within %d ms", TIMEOUT_MS).isNegative();
+            Thread.sleep(10);
+        }
+    }
+
+    private record Client(MockHttpServletRequest request, ClientOutputStream out) {
+
+        String output() {
+            return out.toString();
+        }
+
+        /** Events received so far as {id, name, data}. */
+        List<String[]> events() {
+            List<String[]> events = new ArrayList<>();
+            Matcher matcher = EVENT.matcher(output());
+            while (matcher.find()) {
+                events.add(new String[]{matcher.group(1), matcher.group(2), matcher.group(3)});
+            }
+            return events;
+        }
+    }
+
+    /**
+     * Accepts {@code writes} writes, then reports not ready until
+     * {@link #release()}, which calls onWritePossible as a container would.
+     */
+    private static final class ClientOutputStream extends ServletOutputStream {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private int writes;
+        private WriteListener listener;
+
+        ClientOutputStream(int writes) {
+            this.writes = writes;
+        }
+
+        @Override
+        public synchronized boolean isReady() {
+            return writes > 0;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            boolean ready;
+            synchronized (this) {
+                listener = writeListener;
+                ready = writes > 0;
+            }
+            if (ready) {
+                try {
+                    writeListener.onWritePossible();
+                } catch (IOException e) {
+                    writeListener.onError(e);
+                }
+            }
+        }
+
+        void release() throws IOException {
+            WriteListener writeListener;
+            synchronized (this) {
+                writes = Integer.MAX_VALUE;
+                writeListener = listener;
+            }
+            writeListener.onWritePossible();
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            if (writes <= 0) {
+                throw new IllegalStateException("Write while not ready");
+            }
+            writes--;
+            bytes.write(b, off, len);
+        }
+
+        @Override
+        public synchronized String toString() {
+            return bytes.toString(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.quotes.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LongIntHashMapTest {
+
+    private static final int MISSING = -1;
+
+    @Test
+    void putGetAndOverwrite() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        map.put(42, 1);
+        map.put(-7, 2);
+        map.put(42, 3);
+
+        assertThat(map.get(42, MISSING)).isEqualTo(3);
+        assertThat(map.get(-7, MISSING)).isEqualTo(2);
+        assertThat(map.get(8, MISSING)).isEqualTo(MISSING);
+        assertThat(map.size()).isEqualTo(2);
+    }
+
+    @Test
+    void minValueKeyIsNeverFound() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        assertThat(map.get(Long.MIN_VALUE, MISSING)).isEqualTo(MISSING);
+        assertThat(map.remove(Long.MIN_VALUE, MISSING)).isEqualTo(MISSING);
+
+        // With free slots holding Long.MIN_VALUE, an unguarded lookup would match one of them
+        map.put(1, 10);
+        map.put(2, 20);
+        assertThat(map.get(Long.MIN_VALUE, MISSING)).isEqualTo(MISSING);
+        assertThat(map.remove(Long.MIN_VALUE, MISSING)).isEqualTo(MISSING);
+        assertThat(map.size()).isEqualTo(2);
+        assertThat(map.get(1, MISSING)).isEqualTo(10);
+        assertThat(map.get(2, MISSING)).isEqualTo(20);
+
+        assertThatThrownBy(() -> map.put(Long.MIN_VALUE, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void removeKeepsTheRestOfTheProbeChainReachable() {
+        LongIntHashMap map = new LongIntHashMap(16);
+        for (int i = 0; i < 2000; i++) {
+            map.put(i, i);
+        }
+        for (int i = 0; i < 2000; i += 2) {
+            assertThat(map.remove(i, MISSING)).isEqualTo(i);
+        }
+
+        assertThat(map.size()).isEqualTo(1000);
+        for (int i = 0; i < 2000; i++) {
+            assertThat(map.get(i, MISSING)).isEqualTo(i % 2 == 0 ? MISSING : i);
+        }
+        assertThat(map.remove(0, MISSING)).isEqualTo(MISSING);
+    }
+
+    @Test
+    void matchesHashMapUnderRandomPutsAndRemoves() {
+        // A small key range keeps the table crowded, so most removals shift entries back
+        Random random = new Random(7);
+        LongIntHashMap map = new LongIntHashMap(8);
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int step = 0; step < 200_000; step++) {
+            long key = random.nextInt(512) - 256;
+            if (random.nextInt(3) == 0) {
+                Integer removed = expected.remove(key);
+                assertThat(map.remove(key, MISSING)).isEqualTo(removed == null ? MISSING : removed);
+            } else {
+                expected.put(key, step);
+                map.put(key, step);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (long key = -256; key < 256; key++) {
+            assertThat(map.get(key, MISSING)).isEqualTo(expected.getOrDefault(key, MISSING));
+        }
+    }
+
+    @Test
+    void clearEmptiesTheMap() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        map.clear();
+
+        assertThat(map.size()).isZero();
+        assertThat(map.get(5, MISSING)).isEqualTo(MISSING);
+        map.put(5, 50);
+        assertThat(map.get(5, MISSING)).isEqualTo(50);
+    }
+}